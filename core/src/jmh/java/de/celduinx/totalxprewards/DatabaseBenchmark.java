@@ -0,0 +1,71 @@
+package de.celduinx.totalxprewards;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * {@link XPDatabase} upsert and read throughput on a temporary SQLite file
+ * pre-filled with {@value #PLAYERS} players.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DatabaseBenchmark {
+
+    private static final int PLAYERS = 10_000;
+
+    private File folder;
+    private XPDatabase database;
+    private final UUID[] uuids = new UUID[PLAYERS];
+    private int index;
+
+    @Setup
+    public void setup() throws IOException {
+        folder = Files.createTempDirectory("totalxp-bench").toFile();
+        database = new XPDatabase(folder, Logger.getLogger("TotalXPRewards-Bench"), new PluginStats());
+        database.open();
+        for (int i = 0; i < PLAYERS; i++) {
+            uuids[i] = UUID.randomUUID();
+            database.setPlayerData(uuids[i], i * 10L, "Player" + i, "None");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        database.close();
+        try (var files = Files.walk(folder.toPath())) {
+            files.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public void upsert() {
+        int i = index++ % PLAYERS;
+        database.setPlayerData(uuids[i], index, "Player" + i, "Rank");
+    }
+
+    @Benchmark
+    public long read() {
+        return database.getXp(uuids[index++ % PLAYERS]);
+    }
+}
@@ -0,0 +1,62 @@
+package de.celduinx.totalxprewards;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rank lookup ({@link RankTable#getRankName}) for different reward table
+ * sizes, with XP values spread across the whole table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RankLookupBenchmark {
+
+    /** XP between two generated reward thresholds. */
+    private static final long THRESHOLD_STEP = 1000L;
+
+    @Param({ "3", "20", "100" })
+    public int rewardCount;
+
+    private RankTable rankTable;
+    private final long[] samples = new long[1024];
+    private int index;
+
+    @Setup
+    public void setup() {
+        List<Reward> rewards = new ArrayList<>();
+        for (int i = 1; i <= rewardCount; i++) {
+            rewards.add(new Reward(i * THRESHOLD_STEP, Collections.emptyList(), "", "Rank " + i));
+        }
+        rankTable = new RankTable(rewards);
+
+        Random random = new Random(42);
+        long max = (rewardCount + 1) * THRESHOLD_STEP;
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (long) (random.nextDouble() * max);
+        }
+    }
+
+    @Benchmark
+    public String getRankName() {
+        return rankTable.getRankName(samples[index++ & (samples.length - 1)]);
+    }
+}
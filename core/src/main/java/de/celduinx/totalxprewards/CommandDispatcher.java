@@ -0,0 +1,29 @@
+package de.celduinx.totalxprewards;
+
+import java.util.UUID;
+
+/**
+ * Platform hook that executes rewards, i.e. runs their console commands and
+ * broadcast for a player.
+ */
+public interface CommandDispatcher {
+
+    /**
+     * @param player the player's UUID
+     * @return {@code true} if the player is online, so rewards can be executed
+     *         for them now
+     */
+    boolean isOnline(UUID player);
+
+    /**
+     * Runs the commands and broadcast of a reward for an online player. Called
+     * on the main thread; the platform may execute the reward later, e.g. on
+     * the thread owning the player. Exactly one of the callbacks runs.
+     *
+     * @param grant    the grant being executed
+     * @param reward   the granted reward
+     * @param executed called once the reward's commands have run
+     * @param dropped  called instead if the player went offline first
+     */
+    void dispatch(RewardGrant grant, Reward reward, Runnable executed, Runnable dropped);
+}
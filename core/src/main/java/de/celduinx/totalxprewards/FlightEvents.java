@@ -0,0 +1,191 @@
+package de.celduinx.totalxprewards;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.UUID;
+
+/**
+ * JDK Flight Recorder events for the plugin's hot paths, so XP processing,
+ * reward dispatch, template rendering and database statements show up as
+ * named, timed events in a recording instead of anonymous stack samples.
+ *
+ * <p>
+ * Events are only created while {@code settings.jfr-events} is enabled. When
+ * it is off, the begin methods return {@code null} and the commit methods do
+ * nothing, so the instrumented code neither allocates nor touches JFR.
+ * </p>
+ */
+public final class FlightEvents {
+
+    private static volatile boolean enabled;
+
+    private FlightEvents() {
+        // utility class
+    }
+
+    /**
+     * Enables or disables event creation. Called on (re)load from
+     * {@code settings.jfr-events}.
+     */
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static XpGain beginXpGain() {
+        if (!enabled) {
+            return null;
+        }
+        XpGain event = new XpGain();
+        event.begin();
+        return event;
+    }
+
+    public static void commitXpGain(XpGain event, String player, int amount, long totalXp) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.player = player;
+            event.amount = amount;
+            event.totalXp = totalXp;
+            event.commit();
+        }
+    }
+
+    public static RewardDispatch beginRewardDispatch() {
+        if (!enabled) {
+            return null;
+        }
+        RewardDispatch event = new RewardDispatch();
+        event.begin();
+        return event;
+    }
+
+    public static void commitRewardDispatch(RewardDispatch event, String player, long threshold, int commands) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.player = player;
+            event.threshold = threshold;
+            event.commands = commands;
+            event.commit();
+        }
+    }
+
+    public static TemplateRender beginTemplateRender() {
+        if (!enabled) {
+            return null;
+        }
+        TemplateRender event = new TemplateRender();
+        event.begin();
+        return event;
+    }
+
+    public static void commitTemplateRender(TemplateRender event, String player, int length) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.player = player;
+            event.length = length;
+            event.commit();
+        }
+    }
+
+    public static DatabaseStatement beginDatabaseStatement() {
+        if (!enabled) {
+            return null;
+        }
+        DatabaseStatement event = new DatabaseStatement();
+        event.begin();
+        return event;
+    }
+
+    public static void commitDatabaseStatement(DatabaseStatement event, String operation, UUID player,
+            int rows) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.player = player != null ? player.toString() : null;
+            event.rows = rows;
+            event.commit();
+        }
+    }
+
+    @Name("de.celduinx.totalxprewards.XpGain")
+    @Label("XP Gain")
+    @Category({ "TotalXPRewards" })
+    @Description("Processing of one XP gain in handleXpGain")
+    @StackTrace(false)
+    public static final class XpGain extends Event {
+        @Label("Player")
+        String player;
+
+        @Label("Amount")
+        int amount;
+
+        @Label("Total XP")
+        long totalXp;
+    }
+
+    @Name("de.celduinx.totalxprewards.RewardDispatch")
+    @Label("Reward Dispatch")
+    @Category({ "TotalXPRewards" })
+    @Description("Execution of a reward's commands and broadcast")
+    @StackTrace(false)
+    public static final class RewardDispatch extends Event {
+        @Label("Player")
+        String player;
+
+        @Label("Threshold")
+        long threshold;
+
+        @Label("Commands")
+        int commands;
+    }
+
+    @Name("de.celduinx.totalxprewards.TemplateRender")
+    @Label("Template Render")
+    @Category({ "TotalXPRewards" })
+    @Description("Placeholder replacement and MiniMessage parsing of a template")
+    @StackTrace(false)
+    public static final class TemplateRender extends Event {
+        @Label("Player")
+        String player;
+
+        @Label("Template Length")
+        int length;
+    }
+
+    @Name("de.celduinx.totalxprewards.DatabaseStatement")
+    @Label("Database Statement")
+    @Category({ "TotalXPRewards" })
+    @Description("One XPDatabase operation, including waiting for the connection lock")
+    @StackTrace(true)
+    public static final class DatabaseStatement extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Player")
+        String player;
+
+        @Label("Rows")
+        int rows;
+    }
+}
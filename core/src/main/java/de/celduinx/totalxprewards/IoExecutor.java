@@ -0,0 +1,108 @@
+package de.celduinx.totalxprewards;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Executor for blocking database I/O. Every task gets its own virtual thread,
+ * so database latency does not depend on how busy the server's shared async
+ * pool is. A semaphore caps the number of tasks running at once.
+ * {@link XPDatabase} serializes statements on its single connection with a
+ * {@link java.util.concurrent.locks.ReentrantLock}, so tasks waiting for the
+ * connection unmount from their carrier thread rather than pinning it, and
+ * their work before and after the query (e.g. building replies) overlaps.
+ */
+public final class IoExecutor implements Executor {
+
+    private final ExecutorService threads = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("TotalXPRewards-io-", 0).factory());
+    private final Semaphore permits;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Logger logger;
+
+    /**
+     * @param maxConcurrent maximum number of tasks running at once
+     * @param logger        the logger uncaught task errors are reported to
+     */
+    public IoExecutor(int maxConcurrent, Logger logger) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrent), true);
+        this.logger = logger;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        submit(() -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                logger.log(Level.SEVERE, "Database task failed", t);
+            }
+        });
+    }
+
+    /**
+     * Runs a query on this executor.
+     *
+     * @param query the query
+     * @return a future completed with the query's result, or exceptionally if it throws
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, this::submit);
+    }
+
+    /**
+     * @return the number of tasks queued or running
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Stops accepting tasks and waits for queued ones to finish.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of {@code timeout}
+     * @return {@code false} if tasks were still running after the timeout
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        threads.shutdown();
+        try {
+            return threads.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // CompletableFuture reports failures itself, so no extra logging here
+    private void submit(Runnable task) {
+        pending.incrementAndGet();
+        try {
+            threads.execute(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                    pending.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shut down (plugin disabling): run inline so late saves are not lost
+            try {
+                task.run();
+            } finally {
+                pending.decrementAndGet();
+            }
+        }
+    }
+}
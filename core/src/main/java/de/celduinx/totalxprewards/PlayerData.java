@@ -0,0 +1,226 @@
+package de.celduinx.totalxprewards;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.UUID;
+
+/**
+ * Holds runtime data for a player to reduce database calls.
+ *
+ * <p>
+ * XP and rank name are written by the main thread and read by async
+ * persistence tasks. Updates are guarded by a version counter (a seqlock):
+ * a writer makes the version odd while it changes the fields and even again
+ * afterwards, and {@link #snapshot()} retries until it has read both fields
+ * under the same even version. Readers therefore never block and never see a
+ * torn or half-applied update, and {@link #addXp(long, RankTable)} does not
+ * allocate.
+ * </p>
+ *
+ * <p>
+ * The version of the last persisted snapshot is remembered, so unchanged
+ * players are not written again (see {@link XPDatabase#savePlayer}).
+ * </p>
+ */
+public class PlayerData {
+
+    private static final VarHandle TOTAL_XP;
+    private static final VarHandle RANK_NAME;
+    private static final VarHandle VERSION;
+    private static final VarHandle SAVED_VERSION;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TOTAL_XP = lookup.findVarHandle(PlayerData.class, "totalXp", long.class);
+            RANK_NAME = lookup.findVarHandle(PlayerData.class, "currentRankName", String.class);
+            VERSION = lookup.findVarHandle(PlayerData.class, "version", long.class);
+            SAVED_VERSION = lookup.findVarHandle(PlayerData.class, "savedVersion", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final UUID uuid;
+    private final String name;
+    @SuppressWarnings("unused") // accessed through TOTAL_XP
+    private long totalXp;
+    @SuppressWarnings("unused") // accessed through RANK_NAME
+    private String currentRankName;
+    /** Even while stable, odd while an update is in progress. */
+    @SuppressWarnings("unused") // accessed through VERSION
+    private long version;
+    /** Version of the last persisted snapshot, -1 if never persisted. */
+    @SuppressWarnings("unused") // accessed through SAVED_VERSION
+    private long savedVersion;
+
+    /**
+     * @param uuid            the player's UUID
+     * @param name            the player's name
+     * @param totalXp         the player's total XP
+     * @param currentRankName the rank name for {@code totalXp}
+     * @param stored          whether the database already holds this state;
+     *                        if not, the first save writes it
+     */
+    public PlayerData(UUID uuid, String name, long totalXp, String currentRankName, boolean stored) {
+        this.uuid = uuid;
+        this.name = name;
+        this.totalXp = totalXp;
+        this.currentRankName = currentRankName;
+        this.savedVersion = stored ? 0L : -1L;
+        VarHandle.releaseFence(); // publish the initial state before the object is shared
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getTotalXp() {
+        return (long) TOTAL_XP.getVolatile(this);
+    }
+
+    public String getCurrentRankName() {
+        return (String) RANK_NAME.getVolatile(this);
+    }
+
+    /**
+     * Adds XP and updates the rank name in one step.
+     *
+     * @param amount    the XP to add
+     * @param rankTable the rank table to derive the new rank name from
+     * @return the new total XP
+     */
+    public long addXp(long amount, RankTable rankTable) {
+        long v = beginWrite();
+        long newTotal = (long) TOTAL_XP.getVolatile(this) + amount;
+        TOTAL_XP.setVolatile(this, newTotal);
+        RANK_NAME.setVolatile(this, rankTable.getRankName(newTotal));
+        endWrite(v);
+        return newTotal;
+    }
+
+    /**
+     * Replaces XP and rank name in one step, e.g. for {@code /txp set}.
+     *
+     * @return the total XP before the change
+     */
+    public long setXp(long xp, String rankName) {
+        long v = beginWrite();
+        long previous = (long) TOTAL_XP.getVolatile(this);
+        TOTAL_XP.setVolatile(this, xp);
+        RANK_NAME.setVolatile(this, rankName);
+        endWrite(v);
+        return previous;
+    }
+
+    /**
+     * Re-derives the rank name after the rank table changed. Does nothing if
+     * the name is unchanged.
+     */
+    public void updateRankName(RankTable rankTable) {
+        long v = beginWrite();
+        String rankName = rankTable.getRankName((long) TOTAL_XP.getVolatile(this));
+        if (rankName.equals(RANK_NAME.getVolatile(this))) {
+            VERSION.setVolatile(this, v); // nothing written, restore the stable version
+            return;
+        }
+        RANK_NAME.setVolatile(this, rankName);
+        endWrite(v);
+    }
+
+    /**
+     * Takes a consistent snapshot of the current state without locking.
+     */
+    public Snapshot snapshot() {
+        while (true) {
+            long v = (long) VERSION.getVolatile(this);
+            if ((v & 1L) == 0L) {
+                long xp = (long) TOTAL_XP.getVolatile(this);
+                String rankName = (String) RANK_NAME.getVolatile(this);
+                if ((long) VERSION.getVolatile(this) == v) {
+                    return new Snapshot(uuid, name, xp, rankName, v);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @return {@code true} if the snapshot differs from the last persisted
+     *         state
+     */
+    public boolean isDirty(Snapshot snapshot) {
+        return snapshot.getVersion() != (long) SAVED_VERSION.getVolatile(this);
+    }
+
+    /**
+     * Records that a snapshot has been persisted. Older snapshots persisted
+     * out of order do not move the saved version back.
+     */
+    public void markSaved(Snapshot snapshot) {
+        long saved;
+        do {
+            saved = (long) SAVED_VERSION.getVolatile(this);
+            if (saved >= snapshot.getVersion()) {
+                return;
+            }
+        } while (!SAVED_VERSION.compareAndSet(this, saved, snapshot.getVersion()));
+    }
+
+    private long beginWrite() {
+        while (true) {
+            long v = (long) VERSION.getVolatile(this);
+            if ((v & 1L) == 0L && VERSION.compareAndSet(this, v, v + 1L)) {
+                return v;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void endWrite(long v) {
+        VERSION.setVolatile(this, v + 2L);
+    }
+
+    /**
+     * Immutable, consistent view of a player's state at one version.
+     */
+    public static final class Snapshot {
+        private final UUID uuid;
+        private final String name;
+        private final long totalXp;
+        private final String currentRankName;
+        private final long version;
+
+        Snapshot(UUID uuid, String name, long totalXp, String currentRankName, long version) {
+            this.uuid = uuid;
+            this.name = name;
+            this.totalXp = totalXp;
+            this.currentRankName = currentRankName;
+            this.version = version;
+        }
+
+        public UUID getUuid() {
+            return uuid;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getTotalXp() {
+            return totalXp;
+        }
+
+        public String getCurrentRankName() {
+            return currentRankName;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package de.celduinx.totalxprewards;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory state of the players currently online. Entries are added when a
+ * player's data has been loaded and removed when they quit; the store itself
+ * does no I/O.
+ */
+public class PlayerStateStore {
+
+    private final Map<UUID, PlayerData> players = new ConcurrentHashMap<>();
+
+    public PlayerData get(UUID uuid) {
+        return players.get(uuid);
+    }
+
+    public boolean contains(UUID uuid) {
+        return players.containsKey(uuid);
+    }
+
+    /**
+     * Adds a player's data unless the player is already cached.
+     *
+     * @return the data now cached for the player
+     */
+    public PlayerData putIfAbsent(PlayerData data) {
+        PlayerData existing = players.putIfAbsent(data.getUuid(), data);
+        return existing != null ? existing : data;
+    }
+
+    /**
+     * @return the removed data, or {@code null} if the player was not cached
+     */
+    public PlayerData remove(UUID uuid) {
+        return players.remove(uuid);
+    }
+
+    public int size() {
+        return players.size();
+    }
+
+    /**
+     * @return a live view of all cached players' data
+     */
+    public Collection<PlayerData> values() {
+        return players.values();
+    }
+
+    /**
+     * @return a copy of the UUIDs of all cached players
+     */
+    public Set<UUID> uuids() {
+        return new HashSet<>(players.keySet());
+    }
+}
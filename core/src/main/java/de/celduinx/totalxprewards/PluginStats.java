@@ -0,0 +1,274 @@
+package de.celduinx.totalxprewards;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Low-overhead counters and latency histograms for the plugin's hot paths.
+ *
+ * <p>
+ * Every timed operation records its duration into a {@link Timer}, which
+ * keeps a count, the total and maximum duration and a histogram with
+ * power-of-two buckets starting at one microsecond. Recording only touches
+ * striped adders and atomic longs, so it is safe from any thread and adds no
+ * allocation to the measured code. The values are exposed through
+ * {@code /txp stats}, the {@link StatsMBean} and the
+ * {@link PrometheusExporter}.
+ * </p>
+ */
+public final class PluginStats {
+
+    /** Number of histogram buckets: &lt;2µs, &lt;4µs, ...; the last one is open-ended. */
+    static final int BUCKETS = 25;
+
+    private final Map<String, Timer> timers = new LinkedHashMap<>();
+    private final Map<String, Counter> counters = new LinkedHashMap<>();
+    private final Map<String, LongSupplier> gauges = new LinkedHashMap<>();
+
+    // Plugin hot paths
+    public final Timer xpGain = timer("xp_gain");
+    public final Timer format = timer("format");
+    public final Timer bossBarUpdate = timer("bossbar_update");
+    public final Timer executeReward = timer("execute_reward");
+    public final Timer placeholderApi = timer("placeholderapi");
+
+    // XPDatabase operations
+    public final Timer dbGetXp = timer("db_get_xp");
+    public final Timer dbSetPlayerData = timer("db_set_player_data");
+    public final Timer dbSavePlayers = timer("db_save_players");
+    public final Timer dbRaiseXp = timer("db_raise_xp");
+    public final Timer dbSetXp = timer("db_set_xp");
+    public final Timer dbCountPlayers = timer("db_count_players");
+    public final Timer dbCountRanks = timer("db_count_ranks");
+    public final Timer dbSetReconcileThresholds = timer("db_set_reconcile_thresholds");
+    public final Timer dbScanMissingRewards = timer("db_scan_missing_rewards");
+    public final Timer dbCommitOutbox = timer("db_commit_outbox");
+    public final Timer dbGetPendingRewards = timer("db_get_pending_rewards");
+    public final Timer dbResetPlayer = timer("db_reset_player");
+    public final Timer dbFindByUsername = timer("db_find_by_username");
+    public final Timer dbLoadUsernames = timer("db_load_usernames");
+
+    // Counters
+    public final Counter xpGained = counter("xp_gained");
+    public final Counter rewardsExecuted = counter("rewards_executed");
+    public final Counter rewardsGranted = counter("rewards_granted");
+    public final Counter playerCacheHits = counter("player_cache_hits");
+    public final Counter playerCacheMisses = counter("player_cache_misses");
+    public final Counter dbWritesSkipped = counter("db_writes_skipped");
+    public final Counter placeholderCacheHits = counter("placeholder_cache_hits");
+    public final Counter placeholderCacheMisses = counter("placeholder_cache_misses");
+    public final Counter bossBarUpdatesDeferred = counter("bossbar_updates_deferred");
+    public final Counter governorLevelChanges = counter("governor_level_changes");
+
+    private Timer timer(String name) {
+        Timer timer = new Timer(name);
+        timers.put(name, timer);
+        return timer;
+    }
+
+    private Counter counter(String name) {
+        Counter counter = new Counter(name);
+        counters.put(name, counter);
+        return counter;
+    }
+
+    /**
+     * Registers a gauge that is sampled whenever stats are read. Should be
+     * called during startup only.
+     *
+     * @param name     the gauge name
+     * @param supplier the current value
+     */
+    public synchronized void registerGauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    public Collection<Timer> getTimers() {
+        return Collections.unmodifiableCollection(timers.values());
+    }
+
+    public Collection<Counter> getCounters() {
+        return Collections.unmodifiableCollection(counters.values());
+    }
+
+    public synchronized Map<String, LongSupplier> getGauges() {
+        return new LinkedHashMap<>(gauges);
+    }
+
+    /**
+     * Resets all timers and counters. Gauges are unaffected.
+     */
+    public void reset() {
+        for (Timer timer : timers.values()) {
+            timer.reset();
+        }
+        for (Counter counter : counters.values()) {
+            counter.reset();
+        }
+    }
+
+    /**
+     * A monotonic event counter.
+     */
+    public static final class Counter {
+        private final String name;
+        private final LongAdder value = new LongAdder();
+
+        Counter(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        public long get() {
+            return value.sum();
+        }
+
+        void reset() {
+            value.reset();
+        }
+    }
+
+    /**
+     * Latency statistics for one operation.
+     */
+    public static final class Timer {
+        private final String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        Timer(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Records one operation.
+         *
+         * @param nanos the duration in nanoseconds
+         */
+        public void record(long nanos) {
+            if (nanos < 0) {
+                nanos = 0;
+            }
+            count.increment();
+            totalNanos.add(nanos);
+            buckets.incrementAndGet(bucketOf(nanos));
+
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+        }
+
+        /**
+         * Records the time elapsed since {@code startNanos}.
+         *
+         * @param startNanos a value from {@link System#nanoTime()}
+         */
+        public void stop(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        public long getMeanNanos() {
+            long n = count.sum();
+            return n == 0 ? 0 : totalNanos.sum() / n;
+        }
+
+        /**
+         * Estimates a percentile from the histogram.
+         *
+         * @param percentile the percentile between 0 and 1
+         * @return the upper bound of the bucket containing the percentile, in
+         *         nanoseconds
+         */
+        public long getPercentileNanos(double percentile) {
+            long[] snapshot = getBuckets();
+            long n = 0;
+            for (long c : snapshot) {
+                n += c;
+            }
+            if (n == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile * n);
+            long seen = 0;
+            for (int i = 0; i < snapshot.length; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), maxNanos.get());
+                }
+            }
+            return maxNanos.get();
+        }
+
+        /**
+         * @return a copy of the histogram bucket counts
+         */
+        public long[] getBuckets() {
+            long[] snapshot = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = buckets.get(i);
+            }
+            return snapshot;
+        }
+
+        void reset() {
+            count.reset();
+            totalNanos.reset();
+            maxNanos.set(0);
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+        }
+    }
+
+    static int bucketOf(long nanos) {
+        long micros = nanos >> 10; // ~µs, close enough for bucketing
+        if (micros <= 1) {
+            return 0;
+        }
+        int bucket = 63 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    /**
+     * @return the exclusive upper bound of a histogram bucket in nanoseconds
+     */
+    public static long bucketUpperBound(int bucket) {
+        return (2L << bucket) << 10;
+    }
+}
@@ -0,0 +1,166 @@
+package de.celduinx.totalxprewards;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Serves {@link PluginStats} in the Prometheus text exposition format at
+ * {@code http://<bind>:<port>/metrics}, using the JDK's built-in HTTP server.
+ *
+ * <p>
+ * A scrape only reads the pre-aggregated counters, histograms and gauges, so
+ * it never touches the database or the main thread. Requests are handled on
+ * a single daemon thread.
+ * </p>
+ *
+ * <ul>
+ * <li>counters: {@code totalxprewards_<name>_total}</li>
+ * <li>gauges: {@code totalxprewards_<name>}</li>
+ * <li>timers: {@code totalxprewards_duration_seconds} histogram with an
+ * {@code operation} label</li>
+ * <li>{@code totalxprewards_player_cache_hit_ratio}: hits / lookups</li>
+ * </ul>
+ */
+public class PrometheusExporter {
+
+    private static final String PREFIX = "totalxprewards_";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final PluginStats stats;
+    private final Logger logger;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public PrometheusExporter(PluginStats stats, Logger logger) {
+        this.stats = stats;
+        this.logger = logger;
+    }
+
+    /**
+     * Starts the HTTP server.
+     *
+     * @param bind the address to listen on, e.g. {@code 127.0.0.1}
+     * @param port the port to listen on
+     * @return {@code false} if the server could not be started
+     */
+    public boolean start(String bind, int port) {
+        try {
+            server = HttpServer.create(new InetSocketAddress(bind, port), 0);
+        } catch (IOException e) {
+            logger.severe("Could not start Prometheus endpoint on " + bind + ":" + port + ": " + e.getMessage());
+            return false;
+        }
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "TotalXPRewards-Prometheus");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", this::handle);
+        server.start();
+        logger.info("Prometheus metrics available at http://" + bind + ":" + port + "/metrics");
+        return true;
+    }
+
+    /**
+     * Stops the HTTP server if it is running.
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Renders all metrics in the Prometheus text exposition format.
+     */
+    String render() {
+        StringBuilder sb = new StringBuilder(8192);
+
+        for (PluginStats.Counter counter : stats.getCounters()) {
+            String name = PREFIX + counter.getName() + "_total";
+            header(sb, name, "counter", "Total " + counter.getName().replace('_', ' ') + ".");
+            sb.append(name).append(' ').append(counter.get()).append('\n');
+        }
+
+        long hits = stats.playerCacheHits.get();
+        long lookups = hits + stats.playerCacheMisses.get();
+        header(sb, PREFIX + "player_cache_hit_ratio", "gauge",
+                "Share of player lookups served from the in-memory cache.");
+        sb.append(PREFIX).append("player_cache_hit_ratio ")
+                .append(lookups > 0 ? format((double) hits / lookups) : "1").append('\n');
+
+        for (Map.Entry<String, LongSupplier> gauge : stats.getGauges().entrySet()) {
+            String name = PREFIX + gauge.getKey();
+            header(sb, name, "gauge", "Current " + gauge.getKey().replace('_', ' ') + ".");
+            sb.append(name).append(' ').append(gauge.getValue().getAsLong()).append('\n');
+        }
+
+        String histogram = PREFIX + "duration_seconds";
+        header(sb, histogram, "histogram", "Duration of plugin hot paths and database operations.");
+        for (PluginStats.Timer timer : stats.getTimers()) {
+            String label = "operation=\"" + timer.getName() + "\"";
+            long[] buckets = timer.getBuckets();
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length - 1; i++) {
+                cumulative += buckets[i];
+                sb.append(histogram).append("_bucket{").append(label).append(",le=\"")
+                        .append(format(PluginStats.bucketUpperBound(i) / 1e9D)).append("\"} ")
+                        .append(cumulative).append('\n');
+            }
+            cumulative += buckets[buckets.length - 1];
+            sb.append(histogram).append("_bucket{").append(label).append(",le=\"+Inf\"} ")
+                    .append(cumulative).append('\n');
+            sb.append(histogram).append("_sum{").append(label).append("} ")
+                    .append(format(timer.getTotalNanos() / 1e9D)).append('\n');
+            // Derived from the buckets so _count always matches the +Inf bucket
+            sb.append(histogram).append("_count{").append(label).append("} ").append(cumulative).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void header(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String format(double value) {
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,206 @@
+package de.celduinx.totalxprewards;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Number of players per rank of one {@link RankTable}.
+ *
+ * <p>
+ * The counts are loaded once with a grouped query (see
+ * {@link XPDatabase#countRanks(long[])}) and then kept current in memory by
+ * applying every XP change, so reading them never scans {@code player_xp}.
+ * Updates are lock-free and allocation-free and may happen on any thread.
+ * </p>
+ *
+ * <p>
+ * While a recount is in progress, every change is also recorded (see
+ * {@link #record()}) and later replayed into the new distribution, so changes
+ * made during the recount are not lost when it is swapped in.
+ * </p>
+ */
+public final class RankDistribution {
+
+    /** Key for players below the first threshold. */
+    public static final long UNRANKED = -1L;
+    /** Recorded as the old or new XP of a player who was added or removed. */
+    private static final long NO_PLAYER = Long.MIN_VALUE;
+
+    private final RankTable rankTable;
+    private final long[] thresholds;
+    /** Index 0: unranked, index i: the i-th threshold. */
+    private final AtomicLongArray counts;
+    /** The recount in progress, or {@code null}. */
+    private volatile Recording recording;
+
+    /**
+     * @param rankTable the rank table the counts refer to
+     * @param initial   initial counts by threshold, with {@link #UNRANKED} for
+     *                  players below the first threshold
+     */
+    public RankDistribution(RankTable rankTable, Map<Long, Long> initial) {
+        this.rankTable = rankTable;
+        this.thresholds = rankTable.getThresholds();
+        this.counts = new AtomicLongArray(thresholds.length + 1);
+        for (Map.Entry<Long, Long> entry : initial.entrySet()) {
+            int index = entry.getKey() == UNRANKED ? 0 : indexOfThreshold(entry.getKey());
+            if (index >= 0) {
+                counts.addAndGet(index, entry.getValue());
+            }
+        }
+    }
+
+    public RankTable getRankTable() {
+        return rankTable;
+    }
+
+    /**
+     * Counts a player who was not tracked before.
+     */
+    public void addPlayer(long xp) {
+        counts.incrementAndGet(rankTable.getRankIndex(xp));
+        record(NO_PLAYER, xp);
+    }
+
+    /**
+     * Stops counting a player, e.g. after their data was deleted.
+     */
+    public void removePlayer(long xp) {
+        counts.decrementAndGet(rankTable.getRankIndex(xp));
+        record(xp, NO_PLAYER);
+    }
+
+    /**
+     * Moves a player to their new rank if the XP change crossed a threshold.
+     */
+    public void onXpChange(long oldXp, long newXp) {
+        // Recorded even within a rank, the recount may use other thresholds
+        record(oldXp, newXp);
+        int from = rankTable.getRankIndex(oldXp);
+        int to = rankTable.getRankIndex(newXp);
+        if (from != to) {
+            counts.decrementAndGet(from);
+            counts.incrementAndGet(to);
+        }
+    }
+
+    /**
+     * Starts recording every change, e.g. before the players are recounted.
+     * Only one recording is active at a time.
+     *
+     * @return the recording, to hand over to the recount's result
+     */
+    public Recording record() {
+        Recording started = new Recording();
+        recording = started;
+        return started;
+    }
+
+    /**
+     * Discards the active recording, e.g. after a failed recount.
+     */
+    public void stopRecording() {
+        recording = null;
+    }
+
+    /**
+     * @param threshold a rank threshold or {@link #UNRANKED}
+     * @return the number of players with that rank
+     */
+    public long getCount(long threshold) {
+        int index = threshold == UNRANKED ? 0 : indexOfThreshold(threshold);
+        return index >= 0 ? counts.get(index) : 0L;
+    }
+
+    /**
+     * @return the player counts by threshold in ascending order, starting with
+     *         {@link #UNRANKED}
+     */
+    public Map<Long, Long> getCounts() {
+        Map<Long, Long> map = new LinkedHashMap<>();
+        map.put(UNRANKED, counts.get(0));
+        for (int i = 0; i < thresholds.length; i++) {
+            map.put(thresholds[i], counts.get(i + 1));
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * @return the number of tracked players
+     */
+    public long getTotal() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    private int indexOfThreshold(long threshold) {
+        int index = Arrays.binarySearch(thresholds, threshold);
+        return index >= 0 ? index + 1 : -1;
+    }
+
+    private void record(long oldXp, long newXp) {
+        Recording active = recording;
+        if (active != null) {
+            active.add(oldXp, newXp);
+        }
+    }
+
+    private void apply(long oldXp, long newXp) {
+        if (oldXp == NO_PLAYER) {
+            addPlayer(newXp);
+        } else if (newXp == NO_PLAYER) {
+            removePlayer(oldXp);
+        } else {
+            onXpChange(oldXp, newXp);
+        }
+    }
+
+    /**
+     * Changes made to a distribution while it is being recounted.
+     */
+    public static final class Recording {
+        /** Pairs of recorded changes before the first growth. */
+        private static final int INITIAL_CHANGES = 1024;
+
+        // Guarded by this
+        /** Old and new XP of each change, one pair after the other. */
+        private long[] changes = new long[INITIAL_CHANGES * 2];
+        private int size;
+        private RankDistribution target;
+
+        private synchronized void add(long oldXp, long newXp) {
+            if (target != null) {
+                target.apply(oldXp, newXp);
+                return;
+            }
+            // Grows by doubling, so a change rarely allocates
+            if (size == changes.length) {
+                changes = Arrays.copyOf(changes, size * 2);
+            }
+            changes[size++] = oldXp;
+            changes[size++] = newXp;
+        }
+
+        /**
+         * Replays the recorded changes into the recount's result and forwards
+         * every later change to it, including those from callers still
+         * holding the old distribution.
+         *
+         * @param next the recounted distribution
+         */
+        public synchronized void handOver(RankDistribution next) {
+            for (int i = 0; i < size; i += 2) {
+                next.apply(changes[i], changes[i + 1]);
+            }
+            changes = null;
+            size = 0;
+            target = next;
+        }
+    }
+}
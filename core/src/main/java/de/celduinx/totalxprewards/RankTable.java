@@ -0,0 +1,113 @@
+package de.celduinx.totalxprewards;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable, sorted table of the configured rewards, which double as ranks.
+ *
+ * A player's rank is the reward with the highest threshold at or below their
+ * total XP. The table is rebuilt on reload and swapped as a whole, so readers
+ * on any thread always see a consistent set of rewards.
+ */
+public final class RankTable {
+
+    /** Name of the rank below the first threshold. */
+    public static final String NO_RANK = "None";
+
+    public static final RankTable EMPTY = new RankTable(Collections.emptyList());
+
+    private final NavigableMap<Long, Reward> rewards;
+    private final long[] thresholds;
+    /** Rewards in threshold order, for allocation-free lookups by index. */
+    private final Reward[] ordered;
+
+    /**
+     * Creates a table from a set of rewards. Rewards with the same threshold
+     * replace each other in iteration order.
+     *
+     * @param rewards the rewards
+     */
+    public RankTable(Collection<Reward> rewards) {
+        TreeMap<Long, Reward> map = new TreeMap<>();
+        for (Reward reward : rewards) {
+            map.put(reward.getThreshold(), reward);
+        }
+        this.rewards = Collections.unmodifiableNavigableMap(map);
+        this.thresholds = map.keySet().stream().mapToLong(Long::longValue).toArray();
+        this.ordered = map.values().toArray(new Reward[0]);
+    }
+
+    /**
+     * @return all rewards by threshold, in ascending order
+     */
+    public NavigableMap<Long, Reward> getRewards() {
+        return rewards;
+    }
+
+    /**
+     * @return the reward for a threshold, or {@code null}
+     */
+    public Reward getReward(long threshold) {
+        return rewards.get(threshold);
+    }
+
+    public int size() {
+        return rewards.size();
+    }
+
+    /**
+     * @return a copy of all thresholds in ascending order
+     */
+    public long[] getThresholds() {
+        return thresholds.clone();
+    }
+
+    /**
+     * Returns the position of the rank for {@code xp} without allocating:
+     * 0 below the first threshold, {@code i} for the {@code i}-th threshold
+     * (1-based).
+     */
+    public int getRankIndex(long xp) {
+        int index = Arrays.binarySearch(thresholds, xp);
+        return index >= 0 ? index + 1 : -(index + 1);
+    }
+
+    /**
+     * @param rankIndex a rank position as returned by {@link #getRankIndex},
+     *                  at least 1
+     * @return the reward at that position
+     */
+    public Reward getByIndex(int rankIndex) {
+        return ordered[rankIndex - 1];
+    }
+
+    /**
+     * @return the reward with the highest threshold at or below {@code xp}, or
+     *         {@code null} if no rank has been reached
+     */
+    public Reward getCurrent(long xp) {
+        int index = getRankIndex(xp);
+        return index > 0 ? ordered[index - 1] : null;
+    }
+
+    /**
+     * @return the reward with the lowest threshold above {@code xp}, or
+     *         {@code null} if the highest rank has been reached
+     */
+    public Reward getNext(long xp) {
+        int index = getRankIndex(xp);
+        return index < ordered.length ? ordered[index] : null;
+    }
+
+    /**
+     * @return the name of the rank for {@code xp}, or {@link #NO_RANK}
+     */
+    public String getRankName(long xp) {
+        Reward current = getCurrent(xp);
+        return current != null ? current.getName() : NO_RANK;
+    }
+}
@@ -0,0 +1,164 @@
+package de.celduinx.totalxprewards;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+/**
+ * Platform-independent XP and reward logic: applies XP gains to the cached
+ * player state, keeps the cached rank name and the {@link RankDistribution}
+ * current and hands every crossed reward threshold to the {@link RewardOutbox}.
+ */
+public class RewardEngine {
+
+    private final XPDatabase database;
+    private final PlayerStateStore players;
+    private final TaskScheduler scheduler;
+    private final Executor io;
+    private final RewardOutbox outbox;
+    private final PluginStats stats;
+    private volatile RankTable rankTable = RankTable.EMPTY;
+    private volatile RankDistribution rankDistribution = new RankDistribution(RankTable.EMPTY,
+            Collections.emptyMap());
+    // Guarded by this
+    private boolean refreshing;
+    private boolean refreshQueued;
+
+    /**
+     * @param database   the storage engine
+     * @param players    the cached player state
+     * @param scheduler  the platform scheduler
+     * @param io         the executor for blocking database calls
+     * @param dispatcher the platform hook that executes rewards
+     * @param stats      the stats gains are counted in
+     */
+    public RewardEngine(XPDatabase database, PlayerStateStore players, TaskScheduler scheduler, Executor io,
+            CommandDispatcher dispatcher, PluginStats stats) {
+        this.database = database;
+        this.players = players;
+        this.scheduler = scheduler;
+        this.io = io;
+        this.stats = stats;
+        this.outbox = new RewardOutbox(database, scheduler, io, dispatcher, stats);
+    }
+
+    public RankTable getRankTable() {
+        return rankTable;
+    }
+
+    /**
+     * Replaces the rank table, e.g. after a config reload.
+     */
+    public void setRankTable(RankTable rankTable) {
+        this.rankTable = rankTable;
+        outbox.setRankTable(rankTable);
+    }
+
+    /**
+     * @return the number of players per rank, kept current in memory
+     */
+    public RankDistribution getRankDistribution() {
+        return rankDistribution;
+    }
+
+    /**
+     * Recounts the players per rank of the current rank table with one grouped
+     * query and swaps in the result. Cached players get their rank name
+     * re-derived and are saved first so their in-memory XP is included.
+     * Changes made while the count runs are recorded and applied to the
+     * result. Called on startup and reload, from the main thread; until the
+     * count is done, the previous distribution stays in use. A refresh
+     * requested while one runs follows once it is done.
+     */
+    public synchronized void refreshRankDistribution() {
+        if (refreshing) {
+            refreshQueued = true;
+            return;
+        }
+        refreshing = true;
+        RankTable table = rankTable;
+        // Recording first: on Folia gains keep arriving on region threads and
+        // must not fall unrecorded between the two steps
+        RankDistribution current = rankDistribution;
+        RankDistribution.Recording changes = current.record();
+        List<PlayerData> cached = new ArrayList<>(players.values());
+        long[] before = new long[cached.size()];
+        for (int i = 0; i < before.length; i++) {
+            PlayerData data = cached.get(i);
+            data.updateRankName(table);
+            before[i] = data.getTotalXp();
+        }
+        io.execute(() -> {
+            try {
+                long[] counted = new long[before.length];
+                Map<Long, Long> counts = database.countRanks(table.getThresholds(), cached, counted);
+                if (counts == null) {
+                    current.stopRecording();
+                    return;
+                }
+                RankDistribution next = new RankDistribution(table, counts);
+                // A cached player's changes between the start of the recording
+                // and their save are in both the count and the recording; move
+                // them back to where the recording starts from
+                for (int i = 0; i < before.length; i++) {
+                    next.onXpChange(counted[i], before[i]);
+                }
+                changes.handOver(next);
+                rankDistribution = next;
+            } finally {
+                scheduler.runSync(this::finishRefresh);
+            }
+        });
+    }
+
+    private synchronized void finishRefresh() {
+        refreshing = false;
+        if (refreshQueued) {
+            refreshQueued = false;
+            refreshRankDistribution();
+        }
+    }
+
+    public RewardOutbox getOutbox() {
+        return outbox;
+    }
+
+    public String getRankName(long xp) {
+        return rankTable.getRankName(xp);
+    }
+
+    /**
+     * Adds XP to a cached player and queues the rewards for every threshold
+     * crossed by the gain.
+     *
+     * @param uuid   the player's UUID
+     * @param amount the gained XP, must be positive
+     * @return the player's new total XP, or -1 if the player is not cached
+     */
+    public long addXp(UUID uuid, int amount) {
+        PlayerData data = players.get(uuid);
+        if (data == null) {
+            stats.playerCacheMisses.increment();
+            return -1;
+        }
+        stats.playerCacheHits.increment();
+
+        // Updates XP and cached rank name (for DB consistency) in one step
+        RankTable table = rankTable;
+        long newTotal = data.addXp(amount, table);
+        stats.xpGained.add(amount);
+        rankDistribution.onXpChange(newTotal - amount, newTotal);
+
+        // Persisted first and executed by the outbox once committed. Compared by
+        // rank index so gains that cross no threshold allocate nothing.
+        int from = table.getRankIndex(newTotal - amount);
+        int to = table.getRankIndex(newTotal);
+        for (int rank = from + 1; rank <= to; rank++) {
+            outbox.enqueue(new RewardGrant(uuid, data.getName(), newTotal, table.getByIndex(rank).getThreshold()));
+        }
+        return newTotal;
+    }
+}
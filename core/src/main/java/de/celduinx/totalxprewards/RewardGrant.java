@@ -0,0 +1,82 @@
+package de.celduinx.totalxprewards;
+
+import java.util.UUID;
+
+/**
+ * A single reward threshold that has been (or is about to be) granted to a
+ * player but whose commands and broadcast have not run yet.
+ *
+ * Grants are produced by rank-ups and by the reconciliation job, and live in
+ * the {@code pending_rewards} outbox table until the reward was executed.
+ */
+public class RewardGrant {
+
+    private final UUID uuid;
+    private final String name;
+    private final long xp;
+    private final long threshold;
+
+    /**
+     * Creates a new grant.
+     *
+     * @param uuid      the receiving player's UUID
+     * @param name      the last known name of the player (may be null)
+     * @param xp        the total XP the grant was computed from
+     * @param threshold the reward threshold being granted
+     */
+    public RewardGrant(UUID uuid, String name, long xp, long threshold) {
+        this.uuid = uuid;
+        this.name = name;
+        this.xp = xp;
+        this.threshold = threshold;
+    }
+
+    /**
+     * @return the receiving player's UUID
+     */
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    /**
+     * @return the last known name of the player (may be null)
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the total XP the grant was computed from
+     */
+    public long getXp() {
+        return xp;
+    }
+
+    /**
+     * @return the reward threshold being granted
+     */
+    public long getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Grants are identified by player and threshold, matching the primary key
+     * of the outbox table.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RewardGrant)) {
+            return false;
+        }
+        RewardGrant other = (RewardGrant) o;
+        return threshold == other.threshold && uuid.equals(other.uuid);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * uuid.hashCode() + Long.hashCode(threshold);
+    }
+}
@@ -0,0 +1,278 @@
+package de.celduinx.totalxprewards;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Crash-safe delivery of reward grants through the {@code pending_rewards}
+ * outbox table.
+ *
+ * <p>
+ * A rank-up only enqueues a grant. An async writer periodically commits all
+ * queued grants in one transaction, claiming them in {@code player_rewards}
+ * and recording them as pending. Committed grants are then executed on the
+ * main thread, and executed grants are removed from the outbox with the next
+ * batch. A grant is therefore never executed before it is persisted, and a
+ * grant that was persisted but not executed (crash, player offline) is
+ * replayed when the player is next online. Delivery is at-least-once: a
+ * grant executed shortly before a crash, whose removal was not committed yet,
+ * is executed again.
+ * </p>
+ */
+public class RewardOutbox {
+
+    private final XPDatabase database;
+    private final TaskScheduler scheduler;
+    private final Executor io;
+    private final CommandDispatcher dispatcher;
+    private final PluginStats stats;
+
+    /** Grants waiting to be claimed by the next commit. */
+    private final Queue<RewardGrant> toCommit = new ConcurrentLinkedQueue<>();
+    /** Claimed grants waiting to be executed on the main thread. */
+    private final Queue<RewardGrant> toDispatch = new ConcurrentLinkedQueue<>();
+    /** Executed grants waiting to be removed from the outbox. */
+    private final Queue<RewardGrant> toComplete = new ConcurrentLinkedQueue<>();
+    /** Grants queued or executed but not yet removed from the outbox. */
+    private final Set<RewardGrant> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final Object commitLock = new Object();
+    /** Set while a timed commit is queued on the I/O executor, so a slow database does not pile them up. */
+    private final AtomicBoolean commitQueued = new AtomicBoolean();
+    private int dispatchPerTick;
+    /** Grants executed per tick right now, lowered while the server is loaded. */
+    private volatile int dispatchBudget;
+
+    /** Number of grants in {@link #toDispatch}, kept separately as the queue's size() is O(n). */
+    private final AtomicInteger dispatchQueued = new AtomicInteger();
+
+    /** The rewards grants are executed from, kept current by the {@link RewardEngine}. */
+    private volatile RankTable rankTable = RankTable.EMPTY;
+
+    RewardOutbox(XPDatabase database, TaskScheduler scheduler, Executor io, CommandDispatcher dispatcher,
+            PluginStats stats) {
+        this.database = database;
+        this.scheduler = scheduler;
+        this.io = io;
+        this.dispatcher = dispatcher;
+        this.stats = stats;
+    }
+
+    /**
+     * Starts the commit and dispatch tasks.
+     *
+     * @param commitInterval  ticks between two commits
+     * @param dispatchPerTick maximum number of grants executed per tick
+     */
+    public void start(long commitInterval, int dispatchPerTick) {
+        this.dispatchPerTick = dispatchPerTick;
+        this.dispatchBudget = dispatchPerTick;
+        scheduler.runAsyncTimer(() -> {
+            if (commitQueued.compareAndSet(false, true)) {
+                io.execute(() -> {
+                    commitQueued.set(false);
+                    commit();
+                });
+            }
+        }, commitInterval, commitInterval);
+        scheduler.runSyncTimer(this::dispatch, 1L, 1L);
+    }
+
+    /**
+     * Loads a player's pending grants and queues them for execution, e.g. on
+     * join or for players already online after a reload. May be called from
+     * any thread.
+     *
+     * @param uuid the player's UUID
+     */
+    public void replayPending(UUID uuid) {
+        io.execute(() -> {
+            // Read under the commit lock: a grant that is no longer in flight
+            // then either still has its row or was deleted by a finished commit
+            synchronized (commitLock) {
+                queueClaimed(database.getPendingRewards(uuid));
+            }
+        });
+    }
+
+    /**
+     * Queues a grant for a rank-up. It is executed once it has been committed;
+     * grants the player already received are dropped by the commit.
+     *
+     * @param grant the grant to queue
+     */
+    public void enqueue(RewardGrant grant) {
+        if (inFlight.add(grant)) {
+            toCommit.add(grant);
+        }
+    }
+
+    /**
+     * Claims grants found missing by the reconciliation job in one transaction
+     * and queues those of online players for execution. Grants of offline
+     * players stay in the outbox until the next join. Blocks on the database,
+     * so must not be called from the main thread.
+     *
+     * @param grants the missing grants
+     * @param online the UUIDs of the players currently online
+     * @return the newly claimed grants, or {@code null} if the transaction was
+     *         rolled back
+     */
+    public List<RewardGrant> claimMissing(List<RewardGrant> grants, Set<UUID> online) {
+        synchronized (commitLock) {
+            List<RewardGrant> claimed = database.commitOutbox(grants, Collections.emptyList());
+            if (claimed == null) {
+                return null;
+            }
+            List<RewardGrant> onlineGrants = new ArrayList<>();
+            for (RewardGrant grant : claimed) {
+                if (online.contains(grant.getUuid())) {
+                    onlineGrants.add(grant);
+                }
+            }
+            queueClaimed(onlineGrants);
+            return claimed;
+        }
+    }
+
+    /**
+     * Replaces the rank table the executed rewards are looked up in.
+     */
+    void setRankTable(RankTable rankTable) {
+        this.rankTable = rankTable;
+    }
+
+    /**
+     * @return the number of grants queued, awaiting execution or awaiting
+     *         removal from the outbox
+     */
+    public int getBacklog() {
+        return inFlight.size();
+    }
+
+    /**
+     * @return the number of committed grants waiting to be executed
+     */
+    public int getDispatchQueue() {
+        return dispatchQueued.get();
+    }
+
+    /**
+     * @return the configured maximum number of grants executed per tick
+     */
+    public int getDispatchPerTick() {
+        return dispatchPerTick;
+    }
+
+    /**
+     * @return the number of grants currently executed per tick
+     */
+    public int getDispatchBudget() {
+        return dispatchBudget;
+    }
+
+    /**
+     * Changes the number of grants executed per tick, e.g. to yield to a
+     * loaded server. Grants beyond the budget wait for later ticks.
+     *
+     * @param budget grants per tick, at least 1
+     */
+    public void setDispatchBudget(int budget) {
+        this.dispatchBudget = Math.max(1, budget);
+    }
+
+    /**
+     * Commits all queued grants and completions in one transaction. Runs on an
+     * async thread, and once synchronously on shutdown.
+     */
+    public void commit() {
+        synchronized (commitLock) {
+            List<RewardGrant> grants = drain(toCommit);
+            List<RewardGrant> completed = drain(toComplete);
+            if (grants.isEmpty() && completed.isEmpty()) {
+                return;
+            }
+
+            List<RewardGrant> claimed = database.commitOutbox(grants, completed);
+            if (claimed == null) {
+                // Rolled back, retry with the next batch
+                toCommit.addAll(grants);
+                toComplete.addAll(completed);
+                return;
+            }
+
+            for (RewardGrant grant : completed) {
+                inFlight.remove(grant);
+            }
+            Set<RewardGrant> claimedSet = new HashSet<>(claimed);
+            for (RewardGrant grant : grants) {
+                if (!claimedSet.contains(grant)) {
+                    inFlight.remove(grant); // Already granted before
+                }
+            }
+            toDispatch.addAll(claimed);
+            dispatchQueued.addAndGet(claimed.size());
+            stats.rewardsGranted.add(claimed.size());
+        }
+    }
+
+    /**
+     * Executes committed grants of online players, up to the dispatch budget per tick.
+     * Grants of offline players stay in the outbox until the next join.
+     */
+    private void dispatch() {
+        for (int i = 0, budget = dispatchBudget; i < budget; i++) {
+            RewardGrant grant = toDispatch.poll();
+            if (grant == null) {
+                return;
+            }
+            dispatchQueued.decrementAndGet();
+
+            if (!dispatcher.isOnline(grant.getUuid())) {
+                inFlight.remove(grant);
+                continue;
+            }
+
+            Reward reward = rankTable.getReward(grant.getThreshold());
+            if (reward == null) {
+                toComplete.add(grant);
+                continue;
+            }
+            // Completed once the commands ran; a dropped grant keeps its row
+            // and is replayed on the next join
+            dispatcher.dispatch(grant, reward, () -> toComplete.add(grant), () -> inFlight.remove(grant));
+        }
+    }
+
+    /**
+     * Queues grants that are claimed in the database for execution, skipping
+     * those already in flight. Must be called holding {@link #commitLock}.
+     */
+    private void queueClaimed(List<RewardGrant> grants) {
+        for (RewardGrant grant : grants) {
+            if (inFlight.add(grant)) {
+                toDispatch.add(grant);
+                dispatchQueued.incrementAndGet();
+            }
+        }
+    }
+
+    private static List<RewardGrant> drain(Queue<RewardGrant> queue) {
+        List<RewardGrant> list = new ArrayList<>();
+        RewardGrant grant;
+        while ((grant = queue.poll()) != null) {
+            list.add(grant);
+        }
+        return list;
+    }
+}
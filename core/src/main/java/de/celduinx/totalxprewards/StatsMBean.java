@@ -0,0 +1,158 @@
+package de.celduinx.totalxprewards;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Exposes {@link PluginStats} as a JMX MBean named
+ * {@code de.celduinx.totalxprewards:type=Stats}, so the plugin's costs can be
+ * watched next to the server's own metrics in JConsole or VisualVM.
+ *
+ * <p>
+ * Each timer is published as {@code <name>_count}, {@code <name>_mean_us},
+ * {@code <name>_p50_us}, {@code <name>_p99_us} and {@code <name>_max_us};
+ * counters and gauges are published under their own name. All values are
+ * read-only. The {@code reset} operation clears timers and counters.
+ * </p>
+ */
+public class StatsMBean implements DynamicMBean {
+
+    private static final String OBJECT_NAME = "de.celduinx.totalxprewards:type=Stats";
+
+    private final PluginStats stats;
+
+    public StatsMBean(PluginStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Registers the MBean with the platform MBean server, replacing a stale
+     * registration left behind by a previous plugin instance (e.g. after a
+     * reload).
+     */
+    public void register(Logger logger) {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            }
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        } catch (Exception e) {
+            logger.warning("Could not register JMX stats MBean: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Unregisters the MBean if it is registered.
+     */
+    public void unregister(Logger logger) {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            }
+        } catch (Exception e) {
+            logger.warning("Could not unregister JMX stats MBean: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        for (PluginStats.Timer timer : stats.getTimers()) {
+            String prefix = timer.getName() + "_";
+            if (!attribute.startsWith(prefix)) {
+                continue;
+            }
+            switch (attribute.substring(prefix.length())) {
+                case "count":
+                    return timer.getCount();
+                case "mean_us":
+                    return timer.getMeanNanos() / 1000L;
+                case "p50_us":
+                    return timer.getPercentileNanos(0.50) / 1000L;
+                case "p99_us":
+                    return timer.getPercentileNanos(0.99) / 1000L;
+                case "max_us":
+                    return timer.getMaxNanos() / 1000L;
+                default:
+                    break;
+            }
+        }
+        for (PluginStats.Counter counter : stats.getCounters()) {
+            if (counter.getName().equals(attribute)) {
+                return counter.get();
+            }
+        }
+        LongSupplier gauge = stats.getGauges().get(attribute);
+        if (gauge != null) {
+            return gauge.getAsLong();
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Stats attributes are read-only");
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException ignored) {
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        if ("reset".equals(actionName)) {
+            stats.reset();
+        }
+        return null;
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (PluginStats.Timer timer : stats.getTimers()) {
+            for (String suffix : new String[] { "count", "mean_us", "p50_us", "p99_us", "max_us" }) {
+                attributes.add(new MBeanAttributeInfo(timer.getName() + "_" + suffix, "long",
+                        timer.getName() + " " + suffix, true, false, false));
+            }
+        }
+        for (PluginStats.Counter counter : stats.getCounters()) {
+            attributes.add(new MBeanAttributeInfo(counter.getName(), "long", counter.getName(), true, false, false));
+        }
+        for (Map.Entry<String, LongSupplier> gauge : stats.getGauges().entrySet()) {
+            attributes.add(new MBeanAttributeInfo(gauge.getKey(), "long", gauge.getKey(), true, false, false));
+        }
+        MBeanOperationInfo reset = new MBeanOperationInfo("reset", "Resets all timers and counters",
+                new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION);
+
+        return new MBeanInfo(getClass().getName(), "TotalXPRewards hot-path statistics",
+                attributes.toArray(new MBeanAttributeInfo[0]), null,
+                new MBeanOperationInfo[] { reset }, null);
+    }
+}
@@ -0,0 +1,33 @@
+package de.celduinx.totalxprewards;
+
+/**
+ * Platform hook for running work on the server's main thread or on a
+ * background thread. Delays and periods are given in server ticks.
+ */
+public interface TaskScheduler {
+
+    /**
+     * Runs a task on the main thread during the next tick.
+     */
+    void runSync(Runnable task);
+
+    /**
+     * Runs a task on a background thread as soon as possible.
+     */
+    void runAsync(Runnable task);
+
+    /**
+     * Runs a task on a background thread after a delay.
+     */
+    void runAsyncLater(Runnable task, long delayTicks);
+
+    /**
+     * Runs a task repeatedly on the main thread.
+     */
+    void runSyncTimer(Runnable task, long delayTicks, long periodTicks);
+
+    /**
+     * Runs a task repeatedly on a background thread.
+     */
+    void runAsyncTimer(Runnable task, long delayTicks, long periodTicks);
+}
@@ -0,0 +1,212 @@
+package de.celduinx.totalxprewards;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Case-insensitive username to UUID lookup for every tracked player, filled
+ * from the {@code username} column on startup and kept current on join. Lets
+ * commands resolve offline players without touching the server's user cache
+ * or the Mojang API.
+ * <p>
+ * For tab completion the names are also kept in a case-insensitively sorted
+ * array, so all names with a prefix form one range found by binary search.
+ * Names seen after the array was built go to a small sorted set that is merged
+ * into a new array once it grows past {@value #MERGE_THRESHOLD} names.
+ * </p>
+ * <p>
+ * A player who changes their name keeps their old name mapped until the next
+ * restart, unless another player joins with it.
+ * </p>
+ */
+public final class UsernameIndex {
+
+    private static final int MERGE_THRESHOLD = 1024;
+
+    private final ConcurrentHashMap<String, Entry> byName = new ConcurrentHashMap<>();
+    /** All names in stored case, sorted case-insensitively. Replaced, never grown. */
+    private volatile String[] sorted = new String[0];
+    /** Names not yet in {@link #sorted}. */
+    private final ConcurrentSkipListSet<String> recent = new ConcurrentSkipListSet<>(String.CASE_INSENSITIVE_ORDER);
+    private volatile boolean loaded;
+
+    /**
+     * Adds the stored names. Names already added on join are kept, as they are
+     * newer than the stored ones.
+     *
+     * @param database the database to read the names from
+     */
+    public void load(XPDatabase database) {
+        database.forEachUsername((uuid, name) -> byName.putIfAbsent(key(name), new Entry(uuid, name)));
+        synchronized (this) {
+            String[] names = new String[byName.size()];
+            int size = 0;
+            for (Entry entry : byName.values()) {
+                if (size == names.length) {
+                    names = Arrays.copyOf(names, size * 2 + 16);
+                }
+                names[size++] = entry.name;
+            }
+            names = Arrays.copyOf(names, size);
+            Arrays.sort(names, String.CASE_INSENSITIVE_ORDER);
+            sorted = names;
+            recent.clear();
+        }
+        loaded = true;
+    }
+
+    /**
+     * Records a player's current name, e.g. on join.
+     */
+    public void put(UUID uuid, String name) {
+        if (name == null || name.isEmpty()) {
+            return;
+        }
+        Entry current = byName.get(key(name));
+        if (current == null || !current.uuid.equals(uuid) || !current.name.equals(name)) {
+            byName.put(key(name), new Entry(uuid, name));
+            addSorted(name);
+        }
+    }
+
+    /**
+     * @param name the name to look up, in any case
+     * @return the player last seen with this name, or {@code null} if unknown
+     */
+    public Entry find(String name) {
+        return byName.get(key(name));
+    }
+
+    /**
+     * Collects names starting with a prefix, ignoring case, in sorted order.
+     * Costs one binary search plus one step per returned name.
+     *
+     * @param prefix the typed prefix
+     * @param limit  the maximum number of names to add
+     * @param out    the list to add the names to
+     */
+    public void complete(String prefix, int limit, List<String> out) {
+        String[] names = sorted;
+        int i = lowerBound(names, prefix);
+        Iterator<String> added = recent.tailSet(prefix, true).iterator();
+        String next = added.hasNext() ? added.next() : null;
+        int count = 0;
+        while (count < limit) {
+            String a = i < names.length && startsWithIgnoreCase(names[i], prefix) ? names[i] : null;
+            String b = next != null && startsWithIgnoreCase(next, prefix) ? next : null;
+            if (a == null && b == null) {
+                return;
+            }
+            int cmp = a == null ? 1 : b == null ? -1 : String.CASE_INSENSITIVE_ORDER.compare(a, b);
+            if (cmp <= 0) {
+                out.add(a);
+                i++;
+            } else {
+                out.add(b);
+            }
+            if (cmp >= 0) {
+                // Also skips a name present in both while a merge is swapping them
+                next = added.hasNext() ? added.next() : null;
+            }
+            count++;
+        }
+    }
+
+    /**
+     * @return {@code true} once the stored names have been added; until then
+     *         a miss does not mean the name is unknown
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        return byName.size();
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private synchronized void addSorted(String name) {
+        String[] names = sorted;
+        int i = lowerBound(names, name);
+        if (i < names.length && names[i].equalsIgnoreCase(name)) {
+            // Same name in a new case. Rare, so the array is copied rather than
+            // written in place under readers that already hold it
+            names = names.clone();
+            names[i] = name;
+            sorted = names;
+            return;
+        }
+        recent.remove(name);
+        recent.add(name);
+        if (recent.size() >= MERGE_THRESHOLD) {
+            sorted = merge(names, recent);
+            recent.clear();
+        }
+    }
+
+    private static String[] merge(String[] names, ConcurrentSkipListSet<String> added) {
+        List<String> merged = new ArrayList<>(names.length + added.size());
+        int i = 0;
+        for (String name : added) {
+            while (i < names.length && String.CASE_INSENSITIVE_ORDER.compare(names[i], name) < 0) {
+                merged.add(names[i++]);
+            }
+            merged.add(name);
+        }
+        while (i < names.length) {
+            merged.add(names[i++]);
+        }
+        return merged.toArray(new String[0]);
+    }
+
+    /**
+     * @return the index of the first name not sorting before {@code prefix}
+     */
+    private static int lowerBound(String[] names, String prefix) {
+        int low = 0;
+        int high = names.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (String.CASE_INSENSITIVE_ORDER.compare(names[mid], prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean startsWithIgnoreCase(String name, String prefix) {
+        return name.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    /**
+     * A tracked player's UUID and name in its stored case.
+     */
+    public static final class Entry {
+        private final UUID uuid;
+        private final String name;
+
+        Entry(UUID uuid, String name) {
+            this.uuid = uuid;
+            this.name = name;
+        }
+
+        public UUID getUuid() {
+            return uuid;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package de.celduinx.totalxprewards;
+
+/**
+ * Decides how much non-critical main-thread work the plugin does, based on
+ * how long the server's ticks take. Work that can wait (BossBar refreshes,
+ * reward execution) is throttled while the server is busy and cut to a
+ * minimum while it is behind, i.e. cannot keep 20 ticks per second.
+ * <p>
+ * The level rises as soon as a sample crosses a threshold and only drops once
+ * a sample is clearly below it again, so it does not flap around a threshold.
+ * </p>
+ */
+public final class WorkGovernor {
+
+    /** How loaded the server is. */
+    public enum Level {
+        NORMAL, BUSY, BEHIND
+    }
+
+    /** A level is left once samples are this far below its threshold. */
+    private static final double HYSTERESIS = 0.9D;
+    /** Tick intervals are never below 50 ms; only this much above counts as lag. */
+    private static final double LAG_TOLERANCE_MS = 5.0D;
+
+    private static final long BUSY_BOSSBAR_INTERVAL = 10L;
+    private static final long BEHIND_BOSSBAR_INTERVAL = 40L;
+
+    private volatile boolean enabled = true;
+    private volatile double busyMspt = 40.0D;
+    private volatile double behindMspt = 50.0D;
+
+    private volatile Level level = Level.NORMAL;
+    private volatile double lastSample;
+
+    /**
+     * @param enabled    {@code false} to always work at full rate
+     * @param busyMspt   milliseconds per tick from which work is throttled
+     * @param behindMspt milliseconds per tick from which work is cut to a minimum
+     */
+    public void configure(boolean enabled, double busyMspt, double behindMspt) {
+        this.enabled = enabled;
+        this.busyMspt = busyMspt;
+        this.behindMspt = Math.max(busyMspt, behindMspt);
+        if (!enabled) {
+            level = Level.NORMAL;
+        }
+    }
+
+    /**
+     * Updates the level from the average time a tick takes to process.
+     *
+     * @param mspt milliseconds per tick, e.g. from Paper's tick time API
+     * @return the new level
+     */
+    public Level sample(double mspt) {
+        lastSample = mspt;
+        return update(mspt);
+    }
+
+    /**
+     * Updates the level from the average time between two ticks, where the
+     * tick time itself is not available. A server keeping up ticks every
+     * 50 ms however little each tick does, so only falling behind is detected.
+     *
+     * @param intervalMs milliseconds between the start of two ticks
+     * @return the new level
+     */
+    public Level sampleTickInterval(double intervalMs) {
+        lastSample = intervalMs;
+        return update(intervalMs >= behindMspt + LAG_TOLERANCE_MS ? intervalMs : 0.0D);
+    }
+
+    private Level update(double mspt) {
+        if (!enabled) {
+            return Level.NORMAL;
+        }
+        Level current = level;
+        Level next;
+        if (mspt >= behindMspt) {
+            next = Level.BEHIND;
+        } else if (mspt >= busyMspt) {
+            next = current == Level.BEHIND && mspt >= behindMspt * HYSTERESIS ? Level.BEHIND : Level.BUSY;
+        } else if (current != Level.NORMAL && mspt >= busyMspt * HYSTERESIS) {
+            next = Level.BUSY;
+        } else {
+            next = Level.NORMAL;
+        }
+        level = next;
+        return next;
+    }
+
+    /**
+     * @return the current level
+     */
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * @return the last sample, in milliseconds
+     */
+    public double getLastSample() {
+        return lastSample;
+    }
+
+    /**
+     * @param configured the configured number of rewards executed per tick
+     * @return the number to execute per tick at the current level, at least 1
+     */
+    public int getDispatchBudget(int configured) {
+        switch (level) {
+            case BUSY:
+                return Math.max(1, configured / 2);
+            case BEHIND:
+                return 1;
+            default:
+                return configured;
+        }
+    }
+
+    /**
+     * @return the minimum number of ticks between two BossBar refreshes of a
+     *         player at the current level, 0 to refresh on every XP gain
+     */
+    public long getBossBarInterval() {
+        switch (level) {
+            case BUSY:
+                return BUSY_BOSSBAR_INTERVAL;
+            case BEHIND:
+                return BEHIND_BOSSBAR_INTERVAL;
+            default:
+                return 0L;
+        }
+    }
+}
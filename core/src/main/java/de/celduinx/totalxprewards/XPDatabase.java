@@ -0,0 +1,983 @@
+package de.celduinx.totalxprewards;
+
+import java.io.File;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.logging.Logger;
+
+/**
+ * Simple SQLite wrapper for storing player XP totals and issued rewards.
+ */
+public class XPDatabase {
+    private final File dataFolder;
+    private final Logger logger;
+    private final PluginStats stats;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Connection connection;
+
+    /**
+     * Creates a new database instance. Nothing is read or written before
+     * {@link #open()}; until then every operation does nothing.
+     *
+     * @param dataFolder the folder the database file is stored in
+     * @param logger     the logger for connection and error messages
+     * @param stats      the stats every operation is timed into
+     */
+    public XPDatabase(File dataFolder, Logger logger, PluginStats stats) {
+        this.dataFolder = dataFolder;
+        this.logger = logger;
+        this.stats = stats;
+    }
+
+    /**
+     * Connects and creates or migrates the tables. Blocks for as long as the
+     * migrations take, so the plugin calls it off the main thread.
+     */
+    public void open() {
+        long start = System.nanoTime();
+        init();
+        if (connection == null) {
+            return; // Already logged by init
+        }
+        logger.info("Database ready in " + (System.nanoTime() - start) / 1_000_000L + " ms.");
+    }
+
+    /**
+     * Establishes the SQLite connection and creates tables if they do not already
+     * exist. The database file is stored in the data folder with the
+     * name {@code totalxp.db}.
+     */
+    private void init() {
+        try {
+            File dbFolder = dataFolder;
+            if (!dbFolder.exists() && !dbFolder.mkdirs()) {
+                logger.warning("Could not create plugin data folder");
+            }
+
+            File dbFile = new File(dbFolder, "totalxp.db");
+            String url = "jdbc:sqlite:" + dbFile.getAbsolutePath();
+
+            Connection connection = DriverManager.getConnection(url);
+            logger.info("Connected to SQLite database.");
+
+            try (Statement st = connection.createStatement()) {
+                // WAL lets batched outbox commits append to the log instead of
+                // syncing the main file on every transaction
+                st.execute("PRAGMA journal_mode=WAL");
+                st.execute("PRAGMA synchronous=NORMAL");
+
+                // Main XP table
+                st.executeUpdate(
+                        "CREATE TABLE IF NOT EXISTS player_xp (" +
+                                "uuid TEXT PRIMARY KEY," +
+                                "xp INTEGER NOT NULL" +
+                                ")");
+
+                // Add new columns if they don't exist (SQLite doesn't support IF NOT EXISTS for
+                // ADD COLUMN in older versions easily,
+                // but checking schema is safer or just catching ignore)
+                // SQLite 3.35+ supports ALTER TABLE ADD COLUMN IF NOT EXISTS?
+                // Let's rely on standard try-catch or explicit check.
+
+                migrateTable(st);
+
+                // Rewards table
+                st.executeUpdate(
+                        "CREATE TABLE IF NOT EXISTS player_rewards (" +
+                                "uuid TEXT NOT NULL," +
+                                "threshold INTEGER NOT NULL," +
+                                "PRIMARY KEY (uuid, threshold)" +
+                                ")");
+
+                // Reward outbox: claimed grants whose commands have not run yet
+                st.executeUpdate(
+                        "CREATE TABLE IF NOT EXISTS pending_rewards (" +
+                                "uuid TEXT NOT NULL," +
+                                "threshold INTEGER NOT NULL," +
+                                "xp INTEGER NOT NULL," +
+                                "PRIMARY KEY (uuid, threshold)" +
+                                ")");
+            } catch (SQLException e) {
+                // Never published half-migrated; database work stays disabled
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                }
+                throw e;
+            }
+
+            // Published once migrated; the plugin holds back database work until then
+            lock.lock();
+            try {
+                this.connection = connection;
+            } finally {
+                lock.unlock();
+            }
+        } catch (SQLException e) {
+            logger.severe("Could not initialise SQLite database: " + e.getMessage());
+        }
+    }
+
+    private void migrateTable(Statement st) {
+        // Migration: Add username and current_rank
+        // We use a safe approach by try-catching each alter
+        try {
+            st.executeUpdate("ALTER TABLE player_xp ADD COLUMN username TEXT");
+            logger.info("Database: Added 'username' column.");
+        } catch (SQLException ignored) {
+            // Likely already exists
+        }
+
+        try {
+            st.executeUpdate("ALTER TABLE player_xp ADD COLUMN current_rank TEXT");
+            logger.info("Database: Added 'current_rank' column.");
+        } catch (SQLException ignored) {
+            // Likely already exists
+        }
+
+        // Case-insensitive name lookups for offline command targets
+        try {
+            st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_player_xp_username ON player_xp (username COLLATE NOCASE)");
+        } catch (SQLException e) {
+            logger.severe("Could not create username index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves the stored total XP for a player.
+     *
+     * @param uuid the player's UUID
+     * @return the total XP, or 0 if absent or on error
+     */
+    public long getXp(UUID uuid) {
+        Long xp = findXp(uuid);
+        return xp != null ? xp : 0L;
+    }
+
+    /**
+     * Retrieves the stored total XP for a player, distinguishing players
+     * without a row.
+     *
+     * @param uuid the player's UUID
+     * @return the total XP, or {@code null} if the player has no row or on
+     *         error
+     */
+    public Long findXp(UUID uuid) {
+        long start = System.nanoTime();
+        FlightEvents.DatabaseStatement event = FlightEvents.beginDatabaseStatement();
+        int rows = 0;
+        try {
+            lock.lock();
+            try {
+                if (connection == null)
+                    return null;
+                String sql = "SELECT xp FROM player_xp WHERE uuid = ?";
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    ps.setString(1, uuid.toString());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) {
+                            rows = 1;
+                            return rs.getLong("xp");
+                        }
+                    }
+                } catch (SQLException e) {
+                    logger.severe("Error reading XP from database: " + e.getMessage());
+                }
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            stats.dbGetXp.stop(start);
+            FlightEvents.commitDatabaseStatement(event, stats.dbGetXp.getName(), uuid, rows);
+        }
+    }
+
+    /**
+     * Saves a cached player's current state, unless it is unchanged since the
+     * last save. The snapshot is taken under the database lock, so saves of
+     * the same player from different threads are written in version order.
+     *
+     * @param data the cached player data
+     * @return {@code true} if the row was written
+     */
+    public boolean savePlayer(PlayerData data) {
+        lock.lock();
+        try {
+            PlayerData.Snapshot snapshot = data.snapshot();
+            if (!data.isDirty(snapshot)) {
+                stats.dbWritesSkipped.increment();
+                return false;
+            }
+            if (!setPlayerData(snapshot.getUuid(), snapshot.getTotalXp(), snapshot.getName(),
+                    snapshot.getCurrentRankName())) {
+                return false;
+            }
+            data.markSaved(snapshot);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Saves the player data including XP, username, and rank.
+     *
+     * @return {@code true} if the row was written
+     */
+    public boolean setPlayerData(UUID uuid, long xp, String username, String rank) {
+        long start = System.nanoTime();
+        FlightEvents.DatabaseStatement event = FlightEvents.beginDatabaseStatement();
+        int rows = 0;
+        try {
+            lock.lock();
+            try {
+                if (connection == null)
+                    return false;
+                // Upsert with new fields
+                String sql = "INSERT INTO player_xp (uuid, xp, username, current_rank) VALUES (?, ?, ?, ?) " +
+                        "ON CONFLICT(uuid) DO UPDATE SET " +
+                        "xp = excluded.xp, " +
+                        "username = excluded.username, " +
+                        "current_rank = excluded.current_rank";
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    ps.setString(1, uuid.toString());
+                    ps.setLong(2, xp);
+                    ps.setString(3, username);
+                    ps.setString(4, rank);
+                    rows = ps.executeUpdate();
+                } catch (SQLException e) {
+                    logger.severe("Error saving player data to database: " + e.getMessage());
+                }
+                return rows > 0;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            stats.dbSetPlayerData.stop(start);
+            FlightEvents.commitDatabaseStatement(event, stats.dbSetPlayerData.getName(), uuid, rows);
+        }
+    }
+
+    /**
+     * Saves every given player that changed since their last save in one
+     * transaction, e.g. all online players on shutdown.
+     *
+     * @param players the cached players
+     * @return the number of rows written, or -1 if the transaction was rolled back
+     */
+    public int savePlayers(Collection<PlayerData> players) {
+        return savePlayers(players, null);
+    }
+
+    private int savePlayers(Collection<PlayerData> players, long[] savedXp) {
+        long start = System.nanoTime();
+        FlightEvents.DatabaseStatement event = FlightEvents.beginDatabaseStatement();
+        List<PlayerData> written = new ArrayList<>();
+        List<PlayerData.Snapshot> snapshots = new ArrayList<>();
+        try {
+            lock.lock();
+            try {
+                if (connection == null)
+                    return -1;
+                // Snapshots are taken under the lock, like in savePlayer
+                int index = 0;
+                for (PlayerData data : players) {
+                    PlayerData.Snapshot snapshot = data.snapshot();
+                    if (savedXp != null) {
+                        // Unchanged players are stored with this total as well
+                        savedXp[index++] = snapshot.getTotalXp();
+                    }
+                    if (data.isDirty(snapshot)) {
+                        written.add(data);
+                        snapshots.add(snapshot);
+                    } else {
+                        stats.dbWritesSkipped.increment();
+                    }
+                }
+                if (snapshots.isEmpty())
+                    return 0;
+                String sql = "INSERT INTO player_xp (uuid, xp, username, current_rank) VALUES (?, ?, ?, ?) " +
+                        "ON CONFLICT(uuid) DO UPDATE SET " +
+                        "xp = excluded.xp, " +
+                        "username = excluded.username, " +
+                        "current_rank = excluded.current_rank";
+                try {
+                    connection.setAutoCommit(false);
+                    try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                        for (PlayerData.Snapshot snapshot : snapshots) {
+                            ps.setString(1, snapshot.getUuid().toString());
+                            ps.setLong(2, snapshot.getTotalXp());
+                            ps.setString(3, snapshot.getName());
+                            ps.setString(4, snapshot.getCurrentRankName());
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                    connection.commit();
+                } catch (SQLException e) {
+                    written.clear();
+                    try {
+                        connection.rollback();
+                    } catch (SQLException ignored) {
+                    }
+                    logger.severe("Error saving players to database: " + e.getMessage());
+                    return -1;
+                } finally {
+                    try {
+                        connection.setAutoCommit(true);
+                    } catch (SQLException ignored) {
+                    }
+                }
+                for (int i = 0; i < written.size(); i++) {
+                    written.get(i).markSaved(snapshots.get(i));
+                }
+                return written.size();
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            stats.dbSavePlayers.stop(start);
+            FlightEvents.commitDatabaseStatement(event, stats.dbSavePlayers.getName(), null, written.size());
+        }
+    }
+
+    /**
+     * Raises stored XP totals to journaled ones, e.g. XP gained after the last
+     * save before a crash, together with the stored rank. Lower or equal stored
+     * totals are left alone, so replaying the same totals again changes
+     * nothing. Players without a row get one.
+     *
+     * @param totals    the last journaled total XP per player
+     * @param rankTable the rank table the stored rank is derived from
+     * @return the number of players raised, or -1 if the transaction was rolled back
+     */
+    public int raiseXp(Map<UUID, Long> totals, RankTable rankTable) {
+        long start = System.nanoTime();
+        FlightEvents.DatabaseStatement event = FlightEvents.beginDatabaseStatement();
+        int rows = 0;
+        try {
+            lock.lock();
+            try {
+                if (connection == null)
+                    return -1;
+                try {
+                    connection.setAutoCommit(false);
+                    try (PreparedStatement raise = connection.prepareStatement(
+                            "UPDATE player_xp SET xp = ?, current_rank = ? WHERE uuid = ? AND xp < ?");
+                            PreparedStatement insert = connection.prepareStatement(
+                                    "INSERT OR IGNORE INTO player_xp (uuid, xp, current_rank) VALUES (?, ?, ?)")) {
+                        for (Map.Entry<UUID, Long> entry : totals.entrySet()) {
+                            String uuid = entry.getKey().toString();
+                            long xp = entry.getValue();
+                            String rank = rankTable.getRankName(xp);
+                            raise.setLong(1, xp);
+                            raise.setString(2, rank);
+                            raise.setString(3, uuid);
+                            raise.setLong(4, xp);
+                            int raised = raise.executeUpdate();
+                            if (raised == 0 && xp > 0) {
+                                insert.setString(1, uuid);
+                                insert.setLong(2, xp);
+                                insert.setString(3, rank);
+                                raised = insert.executeUpdate();
+                            }
+                            rows += raised;
+                        }
+                    }
+                    connection.commit();
+                } catch (SQLException e) {
+                    rows = 0;
+                    try {
+                        connection.rollback();
+                    } catch (SQLException ignored) {
+                    }
+                    logger.severe("Error replaying XP journal: " + e.getMessage());
+                    return -1;
+                } finally {
+                    try {
+                        connection.setAutoCommit(true);
+                    } catch (SQLException ignored) {
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            return rows;
+        } finally {
+            stats.dbRaiseXp.stop(start);
+            FlightEvents.commitDatabaseStatement(event, stats.dbRaiseXp.getName(), null, rows);
+        }
+    }
+
+    // Deprecated or simplified setter used by legacy calls?
+    // We should redirect setXp to setPlayerData but we need name/rank.
+    // Ideally we update all callers. For now, let's keep setXp as a partial update?
+    // No, we want to enforce new data.
+    // BUT legacy setXp(uuid, xp) doesn't have name/rank.
+    // We can just update XP if name/rank are not provided?
+    public void setXp(UUID uuid, long xp) {
+        long start = System.nanoTime();
+        FlightEvents.DatabaseStatement event = FlightEvents.beginDatabaseStatement();
+        int rows = 0;
+        try {
+            // Fallback: Just update XP, leave others as is.
+            lock.lock();
+            try {
+                if (connection == null)
+                    return;
+                String sql = "INSERT INTO player_xp (uuid, xp) VALUES (?, ?) " +
+                        "ON CONFLICT(uuid) DO UPDATE SET xp = excluded.xp";
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    ps.setString(1, uuid.toString());
+                    ps.setLong(2, xp);
+                    rows = ps.executeUpdate();
+                } catch (SQLException e) {
+                    logger.severe("Error saving XP to database: " + e.getMessage());
+                }
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            stats.dbSetXp.stop(start);
+            FlightEvents.commitDatabaseStatement(event, stats.dbSetXp.getName(), uuid, rows);
+        }
+    }
+
+    /**
+     * Looks up a player by their stored name, ignoring case.
+     *
+     * @param name the name to look up
+     * @return the player, or {@code null} if no row has this name or on error
+     */
+    public UsernameIndex.Entry findByUsername(String name) {
+        long start = System.nanoTime();
+        FlightEvents.DatabaseStatement event = FlightEvents.beginDatabaseStatement();
+        int rows = 0;
+        try {
+            lock.lock();
+            try {
+                if (connection == null)
+                    return null;
+                String sql = "SELECT uuid, username FROM player_xp WHERE username = ? COLLATE NOCASE LIMIT 1";
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    ps.setString(1, name);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) {
+                            rows = 1;
+                            return new UsernameIndex.Entry(UUID.fromString(rs.getString(1)), rs.getString(2));
+                        }
+                    }
+                } catch (SQLException | IllegalArgumentException e) {
+                    logger.severe("Error looking up username in database: " + e.getMessage());
+                }
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            stats.dbFindByUsername.stop(start);
+            FlightEvents.commitDatabaseStatement(event, stats.dbFindByUsername.getName(), null, rows);
+        }
+    }
+
+    /**
+     * Streams the stored name of every player that has one, without building
+     * an intermediate collection.
+     *
+     * @param consumer receives each player's UUID and name
+     */
+    public void forEachUsername(BiConsumer<UUID, String> consumer) {
+        long start = System.nanoTime();
+        FlightEvents.DatabaseStatement event = FlightEvents.beginDatabaseStatement();
+        int rows = 0;
+        try {
+            lock.lock();
+            try {
+                if (connection == null)
+                    return;
+                try (Statement st = connection.createStatement();
+                        ResultSet rs = st.executeQuery(
+                                "SELECT uuid, username FROM player_xp WHERE username IS NOT NULL")) {
+                    while (rs.next()) {
+                        UUID uuid;
+                        try {
+                            uuid = UUID.fromString(rs.getString(1));
+                        } catch (IllegalArgumentException e) {
+                            continue;
+                        }
+                        consumer.accept(uuid, rs.getString(2));
+                        rows++;
+                    }
+                } catch (SQLException e) {
+                    logger.severe("Error reading usernames from database: " + e.getMessage());
+                }
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            stats.dbLoadUsernames.stop(start);
+            FlightEvents.commitDatabaseStatement(event, stats.dbLoadUsernames.getName(), null, rows);
+        }
+    }
+
+    /**
+     * Counts all tracked players.
+     *
+     * @return the number of rows in {@code player_xp}, or 0 on error
+     */
+    public long countPlayers() {
+        long start = System.nanoTime();
+        FlightEvents.DatabaseStatement event = FlightEvents.beginDatabaseStatement();
+        int rows = 0;
+        try {
+            lock.lock();
+            try {
+                if (connection == null)
+                    return 0L;
+                try (Statement st = connection.createStatement();
+                        ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM player_xp")) {
+                    if (rs.next()) {
+                        rows = 1;
+                        return rs.getLong(1);
+                    }
+                } catch (SQLException e) {
+                    logger.severe("Error counting players in database: " + e.getMessage());
+                }
+                return 0L;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            stats.dbCountPlayers.stop(start);
+            FlightEvents.commitDatabaseStatement(event, stats.dbCountPlayers.getName(), null, rows);
+        }
+    }
+
+    /**
+     * Counts the players per rank in a single grouped query.
+     *
+     * @param thresholds the rank thresholds in ascending order
+     * @return the number of players by the threshold of their rank, with
+     *         {@link RankDistribution#UNRANKED} for players below the first
+     *         threshold, or {@code null} on error
+     */
+    public Map<Long, Long> countRanks(long[] thresholds) {
+        long start = System.nanoTime();
+        FlightEvents.DatabaseStatement event = FlightEvents.beginDatabaseStatement();
+        int rows = 0;
+        try {
+            lock.lock();
+            try {
+                if (connection == null)
+                    return null;
+
+                // CASE picks the highest threshold <= xp, so test from the top
+                StringBuilder sql = new StringBuilder("SELECT ");
+                if (thresholds.length > 0) {
+                    sql.append("CASE");
+                    for (int i = 0; i < thresholds.length; i++) {
+                        sql.append(" WHEN xp >= ? THEN ?");
+                    }
+                    sql.append(" ELSE ? END");
+                } else {
+                    sql.append('?');
+                }
+                sql.append(" AS rank_threshold, COUNT(*) FROM player_xp GROUP BY rank_threshold");
+
+                try (PreparedStatement ps = connection.prepareStatement(sql.toString())) {
+                    int index = 1;
+                    for (int i = thresholds.length - 1; i >= 0; i--) {
+                        ps.setLong(index++, thresholds[i]);
+                        ps.setLong(index++, thresholds[i]);
+                    }
+                    ps.setLong(index, RankDistribution.UNRANKED);
+
+                    Map<Long, Long> counts = new HashMap<>();
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            counts.put(rs.getLong(1), rs.getLong(2));
+                            rows++;
+                        }
+                    }
+                    return counts;
+                } catch (SQLException e) {
+                    logger.severe("Error counting ranks in database: " + e.getMessage());
+                }
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            stats.dbCountRanks.stop(start);
+            FlightEvents.commitDatabaseStatement(event, stats.dbCountRanks.getName(), null, rows);
+        }
+    }
+
+    /**
+     * Saves cached players like {@link #savePlayers(Collection)} and then
+     * counts the players per rank, without another write in between, so each
+     * cached player is counted with exactly the total that was saved.
+     *
+     * @param thresholds the rank thresholds in ascending order
+     * @param players    the cached players to save first
+     * @param counted    receives, in the order of {@code players}, the total XP
+     *                   each player is counted with
+     * @return the number of players by the threshold of their rank, as
+     *         {@link #countRanks(long[])}, or {@code null} on error
+     */
+    public Map<Long, Long> countRanks(long[] thresholds, List<PlayerData> players, long[] counted) {
+        lock.lock();
+        try {
+            if (savePlayers(players, counted) < 0)
+                return null;
+            return countRanks(thresholds);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the thresholds used by {@link #scanMissingRewards(String, int)}.
+     * They are kept in a temporary table so the missing rows can be computed
+     * with a single join per batch.
+     *
+     * @param thresholds the configured reward thresholds
+     */
+    public void setReconcileThresholds(Collection<Long> thresholds) {
+        long start = System.nanoTime();
+        FlightEvents.DatabaseStatement event = FlightEvents.beginDatabaseStatement();
+        int rows = 0;
+        try {
+            lock.lock();
+            try {
+                if (connection == null)
+                    return;
+                try (Statement st = connection.createStatement()) {
+                    st.executeUpdate("CREATE TEMP TABLE IF NOT EXISTS reconcile_thresholds (" +
+                            "threshold INTEGER PRIMARY KEY)");
+                    st.executeUpdate("DELETE FROM reconcile_thresholds");
+                    try (PreparedStatement ps = connection
+                            .prepareStatement("INSERT OR IGNORE INTO reconcile_thresholds (threshold) VALUES (?)")) {
+                        for (long threshold : thresholds) {
+                            ps.setLong(1, threshold);
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                        rows = thresholds.size();
+                    }
+                } catch (SQLException e) {
+                    logger.severe("Error preparing reconcile thresholds: " + e.getMessage());
+                }
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            stats.dbSetReconcileThresholds.stop(start);
+            FlightEvents.commitDatabaseStatement(event, stats.dbSetReconcileThresholds.getName(), null, rows);
+        }
+    }
+
+    /**
+     * Reads the next batch of players after {@code afterUuid} (keyset cursor on
+     * the primary key) and computes, in one statement, every threshold those
+     * players have reached but never received.
+     *
+     * @param afterUuid the last UUID of the previous batch, or {@code ""} to start
+     * @param limit     the maximum number of players in the batch
+     * @return the scanned batch, or {@code null} on error
+     */
+    public RewardScan scanMissingRewards(String afterUuid, int limit) {
+        long start = System.nanoTime();
+        FlightEvents.DatabaseStatement event = FlightEvents.beginDatabaseStatement();
+        int rows = 0;
+        try {
+            lock.lock();
+            try {
+                if (connection == null)
+                    return null;
+                String boundsSql = "SELECT MAX(uuid), COUNT(*) FROM " +
+                        "(SELECT uuid FROM player_xp WHERE uuid > ? ORDER BY uuid LIMIT ?)";
+                String missingSql = "SELECT x.uuid, x.username, x.xp, t.threshold FROM player_xp x " +
+                        "JOIN reconcile_thresholds t ON t.threshold <= x.xp " +
+                        "LEFT JOIN player_rewards r ON r.uuid = x.uuid AND r.threshold = t.threshold " +
+                        "WHERE x.uuid > ? AND x.uuid <= ? AND r.uuid IS NULL " +
+                        "ORDER BY x.uuid, t.threshold";
+                try (PreparedStatement bounds = connection.prepareStatement(boundsSql);
+                        PreparedStatement missing = connection.prepareStatement(missingSql)) {
+                    String lastUuid;
+                    int scanned;
+                    bounds.setString(1, afterUuid);
+                    bounds.setInt(2, limit);
+                    try (ResultSet rs = bounds.executeQuery()) {
+                        if (!rs.next() || rs.getString(1) == null) {
+                            return new RewardScan(null, 0, new ArrayList<>());
+                        }
+                        lastUuid = rs.getString(1);
+                        scanned = rs.getInt(2);
+                    }
+
+                    List<RewardGrant> grants = new ArrayList<>();
+                    missing.setString(1, afterUuid);
+                    missing.setString(2, lastUuid);
+                    try (ResultSet rs = missing.executeQuery()) {
+                        while (rs.next()) {
+                            grants.add(new RewardGrant(UUID.fromString(rs.getString(1)), rs.getString(2),
+                                    rs.getLong(3), rs.getLong(4)));
+                        }
+                    }
+                    rows = scanned;
+                    return new RewardScan(lastUuid, scanned, grants);
+                } catch (SQLException e) {
+                    logger.severe("Error scanning missing rewards: " + e.getMessage());
+                }
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            stats.dbScanMissingRewards.stop(start);
+            FlightEvents.commitDatabaseStatement(event, stats.dbScanMissingRewards.getName(), null, rows);
+        }
+    }
+
+    /**
+     * Commits one outbox batch in a single transaction. Completed grants are
+     * removed from {@code pending_rewards}. New grants are claimed by inserting
+     * them into {@code player_rewards}; grants that were already claimed before
+     * are dropped, the others are written to {@code pending_rewards} until their
+     * commands have run.
+     *
+     * @param grants    the new grants to claim
+     * @param completed the grants whose commands have run
+     * @return the newly claimed grants, or {@code null} if the transaction was
+     *         rolled back
+     */
+    public List<RewardGrant> commitOutbox(List<RewardGrant> grants, List<RewardGrant> completed) {
+        long start = System.nanoTime();
+        FlightEvents.DatabaseStatement event = FlightEvents.beginDatabaseStatement();
+        int rows = 0;
+        try {
+            List<RewardGrant> claimed = new ArrayList<>();
+            lock.lock();
+            try {
+                if (connection == null || (grants.isEmpty() && completed.isEmpty()))
+                    return claimed;
+                rows = grants.size() + completed.size();
+                try {
+                    connection.setAutoCommit(false);
+                    try (PreparedStatement done = connection.prepareStatement(
+                            "DELETE FROM pending_rewards WHERE uuid = ? AND threshold = ?");
+                            PreparedStatement claim = connection.prepareStatement(
+                                    "INSERT OR IGNORE INTO player_rewards (uuid, threshold) VALUES (?, ?)");
+                            PreparedStatement pending = connection.prepareStatement(
+                                    "INSERT OR IGNORE INTO pending_rewards (uuid, threshold, xp) VALUES (?, ?, ?)")) {
+                        for (RewardGrant grant : completed) {
+                            done.setString(1, grant.getUuid().toString());
+                            done.setLong(2, grant.getThreshold());
+                            done.addBatch();
+                        }
+                        done.executeBatch();
+
+                        for (RewardGrant grant : grants) {
+                            claim.setString(1, grant.getUuid().toString());
+                            claim.setLong(2, grant.getThreshold());
+                            if (claim.executeUpdate() == 0) {
+                                continue; // Already granted
+                            }
+                            pending.setString(1, grant.getUuid().toString());
+                            pending.setLong(2, grant.getThreshold());
+                            pending.setLong(3, grant.getXp());
+                            pending.addBatch();
+                            claimed.add(grant);
+                        }
+                        pending.executeBatch();
+                    }
+                    connection.commit();
+                } catch (SQLException e) {
+                    claimed.clear();
+                    try {
+                        connection.rollback();
+                    } catch (SQLException ignored) {
+                    }
+                    logger.severe("Error committing reward outbox: " + e.getMessage());
+                    return null;
+                } finally {
+                    try {
+                        connection.setAutoCommit(true);
+                    } catch (SQLException ignored) {
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            return claimed;
+        } finally {
+            stats.dbCommitOutbox.stop(start);
+            FlightEvents.commitDatabaseStatement(event, stats.dbCommitOutbox.getName(), null, rows);
+        }
+    }
+
+    /**
+     * Retrieves the claimed grants of a player whose commands have not run yet.
+     *
+     * @param uuid the player's UUID
+     * @return the pending grants, possibly empty
+     */
+    public List<RewardGrant> getPendingRewards(UUID uuid) {
+        long start = System.nanoTime();
+        FlightEvents.DatabaseStatement event = FlightEvents.beginDatabaseStatement();
+        int rows = 0;
+        try {
+            List<RewardGrant> grants = new ArrayList<>();
+            lock.lock();
+            try {
+                if (connection == null)
+                    return grants;
+                String sql = "SELECT threshold, xp FROM pending_rewards WHERE uuid = ? ORDER BY threshold";
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    ps.setString(1, uuid.toString());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            grants.add(new RewardGrant(uuid, null, rs.getLong("xp"), rs.getLong("threshold")));
+                        }
+                    }
+                    rows = grants.size();
+                } catch (SQLException e) {
+                    logger.severe("Error reading pending rewards from database: " + e.getMessage());
+                }
+            } finally {
+                lock.unlock();
+            }
+            return grants;
+        } finally {
+            stats.dbGetPendingRewards.stop(start);
+            FlightEvents.commitDatabaseStatement(event, stats.dbGetPendingRewards.getName(), uuid, rows);
+        }
+    }
+
+    /**
+     * Deletes all XP and reward records for a player in one transaction.
+     *
+     * @param uuid the player's UUID
+     */
+    public void resetPlayer(UUID uuid) {
+        long start = System.nanoTime();
+        FlightEvents.DatabaseStatement event = FlightEvents.beginDatabaseStatement();
+        int rows = 0;
+        try {
+            lock.lock();
+            try {
+                if (connection == null)
+                    return;
+                try {
+                    connection.setAutoCommit(false);
+                    try (PreparedStatement ps1 = connection.prepareStatement("DELETE FROM player_xp WHERE uuid = ?");
+                            PreparedStatement ps2 = connection
+                                    .prepareStatement("DELETE FROM player_rewards WHERE uuid = ?");
+                            PreparedStatement ps3 = connection
+                                    .prepareStatement("DELETE FROM pending_rewards WHERE uuid = ?")) {
+                        ps1.setString(1, uuid.toString());
+                        rows += ps1.executeUpdate();
+
+                        ps2.setString(1, uuid.toString());
+                        rows += ps2.executeUpdate();
+
+                        ps3.setString(1, uuid.toString());
+                        rows += ps3.executeUpdate();
+                    }
+                    connection.commit();
+                } catch (SQLException e) {
+                    rows = 0;
+                    try {
+                        connection.rollback();
+                    } catch (SQLException ignored) {
+                    }
+                    logger.severe("Error resetting player in database: " + e.getMessage());
+                } finally {
+                    try {
+                        connection.setAutoCommit(true);
+                    } catch (SQLException ignored) {
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            stats.dbResetPlayer.stop(start);
+            FlightEvents.commitDatabaseStatement(event, stats.dbResetPlayer.getName(), uuid, rows);
+        }
+    }
+
+    /**
+     * Closes the SQLite connection when the plugin is disabled. The WAL is
+     * checkpointed into the main file and truncated first, so the next start
+     * does not have to replay it. Operations called afterwards do nothing.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            if (connection == null) {
+                return;
+            }
+            try (Statement st = connection.createStatement()) {
+                st.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+            } catch (SQLException e) {
+                logger.severe("Error checkpointing database: " + e.getMessage());
+            }
+            try {
+                connection.close();
+                logger.info("SQLite database connection closed.");
+            } catch (SQLException e) {
+                logger.severe("Error closing database connection: " + e.getMessage());
+            }
+            connection = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Result of one {@link #scanMissingRewards(String, int)} batch.
+     */
+    public static class RewardScan {
+        private final String lastUuid;
+        private final int rows;
+        private final List<RewardGrant> missing;
+
+        RewardScan(String lastUuid, int rows, List<RewardGrant> missing) {
+            this.lastUuid = lastUuid;
+            this.rows = rows;
+            this.missing = missing;
+        }
+
+        /**
+         * @return the cursor for the next batch, or {@code null} if the table is
+         *         exhausted
+         */
+        public String getLastUuid() {
+            return lastUuid;
+        }
+
+        /**
+         * @return the number of players read in this batch
+         */
+        public int getRows() {
+            return rows;
+        }
+
+        /**
+         * @return the thresholds reached but never granted in this batch
+         */
+        public List<RewardGrant> getMissing() {
+            return missing;
+        }
+    }
+}
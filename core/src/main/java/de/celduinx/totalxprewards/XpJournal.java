@@ -0,0 +1,281 @@
+package de.celduinx.totalxprewards;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of XP changes in a memory-mapped file, so that XP gained
+ * since the last save survives a crash. Appending is a 32 byte write into the
+ * mapping; the operating system writes it back to disk even if the server
+ * process dies. Only a power loss or OS crash before write-back loses entries.
+ *
+ * <p>
+ * Each entry holds a player's total XP after the change rather than the delta,
+ * so replaying is idempotent: on startup the last total per player is written
+ * to the database wherever it is higher than the stored value. Entries carry a
+ * CRC32C and the journal's generation; the scan stops at the first entry that
+ * fails either check, so a torn write or leftovers of an earlier generation
+ * are never replayed. Rewards for thresholds crossed by recovered XP are not
+ * granted automatically; {@code /txp reconcile} finds them.
+ * </p>
+ *
+ * <p>
+ * Once all players are saved, entries up to a {@link #mark()} taken before
+ * the save are dropped with {@link #truncate(int)}. A full journal asks for
+ * such a save early.
+ * </p>
+ *
+ * <p>
+ * Layout: a 32 byte header (magic, version, generation) followed by entries
+ * of UUID (16 bytes), total XP (8), generation (4) and CRC32C (4).
+ * </p>
+ */
+public final class XpJournal {
+
+    private static final int MAGIC = 0x54585041; // "TXPA"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    static final int ENTRY_SIZE = 32;
+    private static final int CRC_OFFSET = 28;
+
+    private final File file;
+    private final int capacity;
+    private final Logger logger;
+    private final Runnable onFull;
+    private final CRC32C crc = new CRC32C();
+    /** One encoded entry, copied into the mapping in one bulk put. */
+    private final byte[] scratch = new byte[ENTRY_SIZE];
+    private final ByteBuffer entry = ByteBuffer.wrap(scratch);
+
+    // Guarded by this
+    private MappedByteBuffer buffer;
+    private int generation;
+    private int entries;
+    private boolean overflowed;
+
+    /**
+     * @param file     the journal file
+     * @param capacity the number of entries the journal holds between two
+     *                 truncations
+     * @param logger   the logger for errors
+     * @param onFull   called when the journal fills up, to save all players
+     *                 and {@link #truncate(int)} early; may run on any thread
+     */
+    public XpJournal(File file, int capacity, Logger logger, Runnable onFull) {
+        this.file = file;
+        this.capacity = Math.max(16, capacity);
+        this.logger = logger;
+        this.onFull = onFull;
+    }
+
+    /**
+     * Reads the entries left by the last run, e.g. after a crash. Does not
+     * modify the file.
+     *
+     * @return each journaled player's last total XP, in journal order
+     */
+    public Map<UUID, Long> recover() {
+        Map<UUID, Long> totals = new LinkedHashMap<>();
+        if (!file.exists() || file.length() < HEADER_SIZE) {
+            return totals;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+                logger.warning("Ignoring XP journal with unknown format: " + file.getName());
+                return totals;
+            }
+            int expected = data.getInt(8);
+            // A truncation rewrites kept entries with the next generation before
+            // updating the header; a crash in between leaves them ahead of it
+            if (data.limit() >= HEADER_SIZE + ENTRY_SIZE && isValid(data, HEADER_SIZE, expected + 1)) {
+                expected++;
+            }
+            for (int offset = HEADER_SIZE; offset + ENTRY_SIZE <= data.limit(); offset += ENTRY_SIZE) {
+                if (!isValid(data, offset, expected)) {
+                    break;
+                }
+                UUID uuid = new UUID(data.getLong(offset), data.getLong(offset + 8));
+                // Re-inserted so the map's order follows the last change
+                totals.remove(uuid);
+                totals.put(uuid, data.getLong(offset + 16));
+            }
+        } catch (IOException e) {
+            logger.severe("Could not read XP journal: " + e.getMessage());
+        }
+        return totals;
+    }
+
+    /**
+     * Starts a new, empty generation and maps the file for appending. Call
+     * once whatever {@link #recover()} returned has been saved.
+     *
+     * @return {@code false} if the file could not be mapped; appends are then
+     *         ignored
+     */
+    public synchronized boolean open() {
+        int previous = 0;
+        if (file.exists() && file.length() >= HEADER_SIZE) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                raf.seek(8);
+                previous = raf.readInt();
+            } catch (IOException ignored) {
+                // Starts over at generation 1
+            }
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+            long size = HEADER_SIZE + (long) capacity * ENTRY_SIZE;
+            raf.setLength(size);
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            logger.severe("Could not open XP journal, XP gained between saves is not crash-safe: "
+                    + e.getMessage());
+            buffer = null;
+            return false;
+        }
+        // Skips previous + 1, which an interrupted truncation may have left in
+        // the file and which was just recovered
+        generation = previous + 2;
+        entries = 0;
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, generation);
+        return true;
+    }
+
+    /**
+     * Records a player's new total XP. While the journal is full, gains are
+     * not recorded until the save it triggers has truncated it.
+     *
+     * @param uuid    the player's UUID
+     * @param totalXp the total after the change
+     */
+    public synchronized void append(UUID uuid, long totalXp) {
+        if (buffer == null) {
+            return;
+        }
+        if (entries == capacity) {
+            full();
+            return;
+        }
+        write(HEADER_SIZE + entries * ENTRY_SIZE, uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(),
+                totalXp);
+        entries++;
+    }
+
+    /**
+     * Records a total that replaces the player's earlier ones, e.g. after
+     * {@code /txp set} or a reset, which may be lower. Unlike a gain it is
+     * never skipped: while the journal is full, the player's earlier entries
+     * are overwritten with it instead, so recovery cannot bring back an older
+     * total.
+     *
+     * @param uuid    the player's UUID
+     * @param totalXp the new total
+     */
+    public synchronized void supersede(UUID uuid, long totalXp) {
+        if (buffer == null) {
+            return;
+        }
+        if (entries < capacity) {
+            append(uuid, totalXp);
+            return;
+        }
+        full();
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        for (int i = 0; i < entries; i++) {
+            int offset = HEADER_SIZE + i * ENTRY_SIZE;
+            if (buffer.getLong(offset) == msb && buffer.getLong(offset + 8) == lsb) {
+                write(offset, msb, lsb, totalXp);
+            }
+        }
+    }
+
+    /**
+     * @return a position to pass to {@link #truncate(int)} after saving
+     */
+    public synchronized int mark() {
+        return entries;
+    }
+
+    /**
+     * Drops the entries before a mark, once everything they record is saved.
+     * Entries appended since the mark are kept.
+     *
+     * @param mark the value of {@link #mark()} taken before the save
+     */
+    public synchronized void truncate(int mark) {
+        if (buffer == null) {
+            return;
+        }
+        int kept = entries - mark;
+        // Kept entries move to the front under the next generation, which
+        // invalidates everything behind them; the header follows last
+        generation++;
+        for (int i = 0; i < kept; i++) {
+            int from = HEADER_SIZE + (mark + i) * ENTRY_SIZE;
+            write(HEADER_SIZE + i * ENTRY_SIZE, buffer.getLong(from), buffer.getLong(from + 8),
+                    buffer.getLong(from + 16));
+        }
+        buffer.putInt(8, generation);
+        entries = kept;
+        overflowed = false;
+    }
+
+    /**
+     * @return the number of entries since the last truncation
+     */
+    public synchronized int size() {
+        return entries;
+    }
+
+    /**
+     * Writes the mapping back to disk and stops appending.
+     */
+    public synchronized void close() {
+        if (buffer != null) {
+            buffer.force();
+            buffer = null;
+        }
+    }
+
+    private void full() {
+        if (!overflowed) {
+            overflowed = true;
+            logger.warning("XP journal is full, saving all players early; raise journal.capacity or lower "
+                    + "journal.flush-interval-seconds.");
+            onFull.run();
+        }
+    }
+
+    private void write(int offset, long msb, long lsb, long totalXp) {
+        entry.putLong(0, msb);
+        entry.putLong(8, lsb);
+        entry.putLong(16, totalXp);
+        entry.putInt(24, generation);
+        crc.reset();
+        crc.update(scratch, 0, CRC_OFFSET);
+        entry.putInt(CRC_OFFSET, (int) crc.getValue());
+        buffer.put(offset, scratch);
+    }
+
+    private boolean isValid(ByteBuffer data, int offset, int generation) {
+        if (data.getInt(offset + 24) != generation) {
+            return false;
+        }
+        CRC32C check = new CRC32C();
+        check.update(data.slice(offset, CRC_OFFSET));
+        return (int) check.getValue() == data.getInt(offset + CRC_OFFSET);
+    }
+}
@@ -0,0 +1,66 @@
+package de.celduinx.totalxprewards;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+
+import java.util.Collections;
+
+/**
+ * Stub server for benchmarks: a MockBukkit server with the plugin loaded and
+ * a configurable number of evenly spaced reward thresholds.
+ */
+final class BenchmarkServer {
+
+    /** XP between two generated reward thresholds. */
+    static final long THRESHOLD_STEP = 1000L;
+
+    final ServerMock server;
+    final TotalXPRewardsPlugin plugin;
+
+    private BenchmarkServer(ServerMock server, TotalXPRewardsPlugin plugin) {
+        this.server = server;
+        this.plugin = plugin;
+    }
+
+    /**
+     * Starts a mock server and loads the plugin with {@code rewardCount} rewards
+     * at 1000, 2000, ... XP.
+     */
+    static BenchmarkServer start(int rewardCount) {
+        ServerMock server = MockBukkit.mock();
+        TotalXPRewardsPlugin plugin = MockBukkit.load(TotalXPRewardsPlugin.class);
+        // The database is opened by the async startup stage
+        while (!plugin.isReady()) {
+            server.getScheduler().performOneTick();
+        }
+
+        plugin.getConfig().set("rewards", null);
+        for (int i = 1; i <= rewardCount; i++) {
+            String key = "rewards." + (i * THRESHOLD_STEP);
+            plugin.getConfig().set(key + ".name", "Rank " + i);
+            plugin.getConfig().set(key + ".commands", Collections.singletonList("say %player% reached %threshold%"));
+            plugin.getConfig().set(key + ".broadcast", "&a%player% reached &e%current_rank%&a!");
+        }
+        plugin.saveConfig();
+        plugin.reloadSettings();
+
+        return new BenchmarkServer(server, plugin);
+    }
+
+    /**
+     * Joins a player and waits until the plugin has cached their data.
+     */
+    PlayerMock joinPlayer(String name) {
+        PlayerMock player = server.addPlayer(name);
+        while (plugin.getPlayerDataManager().getData(player) == null) {
+            server.getScheduler().performOneTick();
+            server.getScheduler().waitAsyncTasksFinished();
+        }
+        return player;
+    }
+
+    void stop() {
+        MockBukkit.unmock();
+    }
+}
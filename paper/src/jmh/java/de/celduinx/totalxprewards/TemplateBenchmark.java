@@ -0,0 +1,73 @@
+package de.celduinx.totalxprewards;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Template rendering as done for every BossBar refresh and broadcast:
+ * {@code formatToComponent} end to end, and the legacy-to-MiniMessage
+ * conversion on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TemplateBenchmark {
+
+    /** The default BossBar title from config.yml. */
+    private static final String BOSSBAR_TITLE = "&bCurrent Rank: &e%current_rank% &7| &bNext Rank: &e%next_rank% "
+            + "&7(&a%xp%&7/&c%required_xp%&7)";
+    private static final String MIXED_TITLE = "&bRank: <gradient:red:blue>%current_rank%</gradient> &7(&a%xp%&7)";
+    private static final String LEGACY_TEXT = "&6&lEvent &r&7| &aBalance: &e12,345$ &7| &bClan: &d[Knights]";
+    /** Typical PlaceholderAPI output: section codes and both hex forms. */
+    private static final String HEX_TEXT = "§x§f§f§a§a§0§0Guild §7| &#55FF55Online: §e42 &7| Salt & Pepper";
+
+    private BenchmarkServer env;
+    private PlayerMock player;
+
+    @Setup
+    public void setup() {
+        env = BenchmarkServer.start(20);
+        player = env.joinPlayer("Bench");
+    }
+
+    @TearDown
+    public void tearDown() {
+        env.stop();
+    }
+
+    @Benchmark
+    public Component formatBossBarTitle() {
+        return env.plugin.formatToComponent(player, BOSSBAR_TITLE, 12_345L, 13_000L);
+    }
+
+    @Benchmark
+    public Component formatMixedTitle() {
+        return env.plugin.formatToComponent(player, MIXED_TITLE, 12_345L, 13_000L);
+    }
+
+    @Benchmark
+    public String convertLegacyToMiniMessage() {
+        return LegacyConverter.toMiniMessage(LEGACY_TEXT);
+    }
+
+    @Benchmark
+    public String convertHexToMiniMessage() {
+        return LegacyConverter.toMiniMessage(HEX_TEXT);
+    }
+}
@@ -0,0 +1,56 @@
+package de.celduinx.totalxprewards;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The full {@code handleXpGain} path for an online player: cache update, rank
+ * lookup, BossBar refresh and threshold check, against a MockBukkit server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class XpGainBenchmark {
+
+    @Param({ "true", "false" })
+    public boolean bossBar;
+
+    private BenchmarkServer env;
+    private PlayerMock player;
+
+    @Setup
+    public void setup() {
+        env = BenchmarkServer.start(20);
+        env.plugin.getConfig().set("bossbar.enabled", bossBar);
+        env.plugin.getConfig().set("bossbar.dynamic-mode", false);
+        env.plugin.saveConfig();
+        env.plugin.reloadSettings();
+        player = env.joinPlayer("Bench");
+    }
+
+    @TearDown
+    public void tearDown() {
+        env.stop();
+    }
+
+    @Benchmark
+    public void handleXpGain() {
+        env.plugin.handleXpGain(player, 7);
+    }
+}
@@ -7,40 +7,32 @@ import org.bukkit.boss.BarStyle;
 import org.bukkit.boss.BossBar;
 import org.bukkit.entity.Player;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * package de.celduinx.totalxprewards;
- * 
- * import org.bukkit.Bukkit;
- * import org.bukkit.ChatColor;
- * import org.bukkit.boss.BarColor;
- * import org.bukkit.boss.BarStyle;
- * import org.bukkit.boss.BossBar;
- * import org.bukkit.entity.Player;
- * 
- * import java.util.HashMap;
- * import java.util.Map;
- * import java.util.UUID;
- * 
- * /**
- * Manages the BossBar for each player to display XP progress.
+ * Manages the BossBar for each player to display XP progress. A player's bar is
+ * only touched from the thread owning that player, so on Folia different
+ * players' bars are updated concurrently from different regions.
  */
 public class BossBarManager {
 
     private final TotalXPRewardsPlugin plugin;
-    private final Map<UUID, BossBar> bossBars = new HashMap<>();
-    private final java.util.Set<UUID> hiddenPlayers = new java.util.HashSet<>();
-    private final Map<UUID, Integer> hideTasks = new HashMap<>(); // Store task IDs
-
-    private boolean enabled;
-    private boolean dynamicMode;
-    private int timeout;
-    private String titleTemplate;
-    private BarColor barColor;
-    private BarStyle barStyle;
+    private final Map<UUID, BossBar> bossBars = new ConcurrentHashMap<>();
+    private final Set<UUID> hiddenPlayers = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, PlatformScheduler.Task> hideTasks = new ConcurrentHashMap<>();
+    /** Latest XP of players whose refresh is postponed by the work governor. */
+    private final Map<UUID, Long> deferred = new ConcurrentHashMap<>();
+
+    // Written by /txp reload, read from every region
+    private volatile boolean enabled;
+    private volatile boolean dynamicMode;
+    private volatile int timeout;
+    private volatile String titleTemplate;
+    private volatile BarColor barColor;
+    private volatile BarStyle barStyle;
 
     public BossBarManager(TotalXPRewardsPlugin plugin) {
         this.plugin = plugin;
@@ -72,17 +64,19 @@ public class BossBarManager {
             this.barStyle = BarStyle.SOLID;
         }
 
-        // Update all online players to match new settings
+        // Update all online players to match new settings, each on its own thread
         for (Player player : Bukkit.getOnlinePlayers()) {
-            if (enabled && !hiddenPlayers.contains(player.getUniqueId())) {
-                // Determine their XP and update/create bar
-                PlayerData data = plugin.getPlayerDataManager().getData(player.getUniqueId());
-                long xp = (data != null) ? data.getTotalXp() : 0;
-                update(player, xp);
-            } else {
-                // If disabled or user hid it, remove bar
-                remove(player);
-            }
+            plugin.getPlatformScheduler().runForEntity(player, () -> {
+                if (enabled && !hiddenPlayers.contains(player.getUniqueId())) {
+                    // Determine their XP and update/create bar
+                    PlayerData data = plugin.getPlayerDataManager().getData(player.getUniqueId());
+                    long xp = (data != null) ? data.getTotalXp() : 0;
+                    update(player, xp);
+                } else {
+                    // If disabled or user hid it, remove bar
+                    remove(player);
+                }
+            });
         }
     }
 
@@ -102,22 +96,56 @@ public class BossBarManager {
      * Removes the BossBar for a player (e.g. on quit).
      */
     public void remove(Player player) {
+        deferred.remove(player.getUniqueId());
         BossBar bar = bossBars.remove(player.getUniqueId());
         if (bar != null) {
             bar.removeAll(); // Removes from player
         }
 
         // Cancel any pending hide task
-        if (hideTasks.containsKey(player.getUniqueId())) {
-            Bukkit.getScheduler().cancelTask(hideTasks.get(player.getUniqueId()));
-            hideTasks.remove(player.getUniqueId());
+        PlatformScheduler.Task hideTask = hideTasks.remove(player.getUniqueId());
+        if (hideTask != null) {
+            hideTask.cancel();
         }
     }
 
+    /**
+     * Updates the BossBar after an XP gain. While the server is loaded, the
+     * refresh is postponed by the work governor's interval and gains in the
+     * meantime are folded into it.
+     */
+    public void requestUpdate(Player player, long currentXp) {
+        long interval = plugin.getWorkGovernor().getBossBarInterval();
+        if (interval <= 0L) {
+            update(player, currentXp);
+            return;
+        }
+        UUID uuid = player.getUniqueId();
+        if (deferred.put(uuid, currentXp) != null) {
+            plugin.getStats().bossBarUpdatesDeferred.increment();
+            return;
+        }
+        plugin.getPlatformScheduler().runForEntityLater(player, () -> {
+            Long latest = deferred.remove(uuid);
+            if (latest != null) {
+                update(player, latest);
+            }
+        }, interval);
+    }
+
     /**
      * Updates the BossBar for a player based on their current XP.
      */
     public void update(Player player, long currentXp) {
+        long start = System.nanoTime();
+        try {
+            updateBar(player, currentXp);
+        } finally {
+            plugin.getStats().bossBarUpdate.stop(start);
+        }
+    }
+
+    private void updateBar(Player player, long currentXp) {
         // If globally disabled or locally hidden, do nothing (or remove)
         if (!enabled || hiddenPlayers.contains(player.getUniqueId())) {
             if (bossBars.containsKey(player.getUniqueId())) {
@@ -127,18 +155,12 @@ public class BossBarManager {
         }
 
         // Find next threshold using the actual Reward object to get the Name
-        long nextThreshold = -1;
-        long prevThreshold = 0; // The threshold of the current rank (start of progress bar)
-
-        // Maps are sorted in plugin.getRewards() (TreeMap)
-        for (java.util.Map.Entry<Long, Reward> entry : plugin.getRewards().entrySet()) {
-            long threshold = entry.getKey();
-            if (threshold > currentXp) {
-                nextThreshold = threshold;
-                break;
-            }
-            prevThreshold = threshold;
-        }
+        RankTable rankTable = plugin.getRankTable();
+        Reward next = rankTable.getNext(currentXp);
+        Reward current = rankTable.getCurrent(currentXp);
+        long nextThreshold = next != null ? next.getThreshold() : -1;
+        // The threshold of the current rank (start of progress bar)
+        long prevThreshold = current != null ? current.getThreshold() : 0;
 
         BossBar bar = bossBars.computeIfAbsent(player.getUniqueId(), k -> {
             BossBar b = Bukkit.createBossBar("", barColor, barStyle);
@@ -187,13 +209,13 @@ public class BossBarManager {
         // Dynamic Mode Logic
         if (dynamicMode) {
             // Cancel existing hide task if any
-            if (hideTasks.containsKey(player.getUniqueId())) {
-                Bukkit.getScheduler().cancelTask(hideTasks.get(player.getUniqueId()));
-                hideTasks.remove(player.getUniqueId());
+            PlatformScheduler.Task previous = hideTasks.remove(player.getUniqueId());
+            if (previous != null) {
+                previous.cancel();
             }
 
-            // Schedule new hide task
-            int taskId = Bukkit.getScheduler().scheduleSyncDelayedTask(plugin, () -> {
+            // Schedule new hide task on the player's own thread
+            PlatformScheduler.Task hideTask = plugin.getPlatformScheduler().runForEntityLater(player, () -> {
                 if (bossBars.containsKey(player.getUniqueId())) {
                     // Only hide if allowed (not forced shown by command?)
                     // If we want /txp show to override dynamic mode, we need to check hiddenPlayers
@@ -209,7 +231,7 @@ public class BossBarManager {
                 hideTasks.remove(player.getUniqueId());
             }, timeout * 20L);
 
-            hideTasks.put(player.getUniqueId(), taskId);
+            hideTasks.put(player.getUniqueId(), hideTask);
         }
     }
 }
@@ -0,0 +1,130 @@
+package de.celduinx.totalxprewards;
+
+import net.kyori.adventure.text.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects reward broadcasts and sends them once per window. Each broadcast is
+ * rendered once and sent as a component to every player, with the prefix
+ * built once per language (see {@link Lang#broadcastPrefixed(Component)}).
+ * <p>
+ * When more rank-ups than the summary threshold fall into one window, e.g.
+ * during an XP event, they are announced as a single {@code broadcast-summary}
+ * line listing the players instead of one line each.
+ * </p>
+ */
+final class BroadcastAggregator {
+
+    /** Names listed in a summary before the rest is only counted. */
+    private static final int MAX_SUMMARY_NAMES = 10;
+
+    private final TaskScheduler scheduler;
+    private final ConcurrentLinkedQueue<Broadcast> pending = new ConcurrentLinkedQueue<>();
+
+    // Replaced on reload
+    private volatile long windowTicks = 10L;
+    private volatile int summaryThreshold = 5;
+
+    /** Ticks since the last window ended, main thread only. */
+    private long elapsed;
+
+    BroadcastAggregator(TaskScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Applies new settings, from the next window on.
+     *
+     * @param windowTicks      interval in ticks in which broadcasts are sent
+     * @param summaryThreshold number of broadcasts in one window above which a
+     *                         summary is sent instead, or 0 to never summarize
+     */
+    void reload(long windowTicks, int summaryThreshold) {
+        this.windowTicks = Math.max(1L, windowTicks);
+        this.summaryThreshold = Math.max(0, summaryThreshold);
+    }
+
+    /**
+     * Starts sending collected broadcasts. The task runs every tick so a
+     * reloaded window takes effect without rescheduling it.
+     */
+    void start() {
+        scheduler.runSyncTimer(this::tick, 1L, 1L);
+    }
+
+    /**
+     * Queues a broadcast for the current window.
+     *
+     * @param playerName the name of the player who reached the reward
+     * @param message    the rendered broadcast, without prefix
+     */
+    void submit(String playerName, Component message) {
+        pending.add(new Broadcast(playerName, message));
+    }
+
+    private void tick() {
+        if (++elapsed < windowTicks) {
+            return;
+        }
+        elapsed = 0L;
+        flush();
+    }
+
+    /**
+     * Sends everything collected so far. Called every window and on disable.
+     */
+    void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        int summaryThreshold = this.summaryThreshold;
+        List<Broadcast> batch = new ArrayList<>();
+        Broadcast broadcast;
+        while ((broadcast = pending.poll()) != null) {
+            batch.add(broadcast);
+        }
+        if (summaryThreshold <= 0 || batch.size() <= summaryThreshold) {
+            for (Broadcast b : batch) {
+                Lang.broadcastPrefixed(b.message);
+            }
+            return;
+        }
+
+        // Each player once, in order of their first rank-up
+        Set<String> names = new LinkedHashSet<>();
+        for (Broadcast b : batch) {
+            names.add(b.playerName);
+        }
+        StringBuilder list = new StringBuilder();
+        int listed = 0;
+        for (String name : names) {
+            if (listed == MAX_SUMMARY_NAMES) {
+                break;
+            }
+            if (listed++ > 0) {
+                list.append(", ");
+            }
+            list.append(name);
+        }
+        if (names.size() > MAX_SUMMARY_NAMES) {
+            list.append(" (+").append(names.size() - MAX_SUMMARY_NAMES).append(')');
+        }
+        Lang.broadcastPrefixed("broadcast-summary", "count", String.valueOf(batch.size()),
+                "players", list.toString());
+    }
+
+    private static final class Broadcast {
+        private final String playerName;
+        private final Component message;
+
+        Broadcast(String playerName, Component message) {
+            this.playerName = playerName;
+            this.message = message;
+        }
+    }
+}
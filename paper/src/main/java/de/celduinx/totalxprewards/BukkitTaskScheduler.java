@@ -0,0 +1,97 @@
+package de.celduinx.totalxprewards;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * {@link PlatformScheduler} backed by the Bukkit scheduler. Entity tasks run on
+ * the main thread, which owns every entity on Paper.
+ */
+public class BukkitTaskScheduler implements PlatformScheduler {
+
+    private final Plugin plugin;
+
+    public BukkitTaskScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void runSync(Runnable task) {
+        Bukkit.getScheduler().runTask(plugin, task);
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+    }
+
+    @Override
+    public void runAsyncLater(Runnable task, long delayTicks) {
+        Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, task, delayTicks);
+    }
+
+    @Override
+    public void runSyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        Bukkit.getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks);
+    }
+
+    @Override
+    public void runAsyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, task, delayTicks, periodTicks);
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task) {
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            if (isPresent(entity)) {
+                task.run();
+            }
+        });
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task, Runnable retired) {
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            if (isPresent(entity)) {
+                task.run();
+            } else {
+                retired.run();
+            }
+        });
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            runSync(task);
+        }
+    }
+
+    @Override
+    public Task runForEntityLater(Entity entity, Runnable task, long delayTicks) {
+        BukkitTask scheduled = Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            if (isPresent(entity)) {
+                task.run();
+            }
+        }, delayTicks);
+        return scheduled::cancel;
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread(Entity entity) {
+        return Bukkit.isPrimaryThread();
+    }
+
+    /**
+     * Mirrors Folia's entity scheduler, which retires tasks once the entity is
+     * removed. Players count as present until they quit, even while dead.
+     */
+    private static boolean isPresent(Entity entity) {
+        return entity instanceof Player ? ((Player) entity).isOnline() : entity.isValid();
+    }
+}
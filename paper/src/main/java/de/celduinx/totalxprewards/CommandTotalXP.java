@@ -0,0 +1,478 @@
+package de.celduinx.totalxprewards;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
+/**
+ * Handles the /totalxp command, providing subcommands to view, set, reset and
+ * reload XP statistics. Permissions are checked based on totalxp.view and
+ * totalxp.admin.
+ */
+public class CommandTotalXP implements CommandExecutor, TabCompleter {
+
+    /** Maximum number of player names suggested per completion. */
+    private static final int MAX_NAME_SUGGESTIONS = 100;
+    private static final String[] SELECTORS = { "@a", "@p", "@r", "@s", "@e" };
+
+    private final TotalXPRewardsPlugin plugin;
+
+    public CommandTotalXP(TotalXPRewardsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (args.length == 0) {
+            sendHelp(sender, label);
+            return true;
+        }
+        if (!plugin.isReady()) {
+            // The database is still being opened
+            Lang.send(sender, "starting");
+            return true;
+        }
+
+        String sub = args[0].toLowerCase();
+
+        switch (sub) {
+            case "get":
+                handleGet(sender, args);
+                break;
+            case "set":
+                handleSet(sender, args);
+                break;
+            case "reset":
+                handleReset(sender, args);
+                break;
+            case "reload":
+                handleReload(sender);
+                break;
+            case "show":
+                handleShow(sender);
+                break;
+            case "hide":
+                handleHide(sender);
+                break;
+            case "reconcile":
+                handleReconcile(sender, args);
+                break;
+            case "stats":
+                handleStats(sender, args);
+                break;
+            default:
+                sendHelp(sender, label);
+        }
+
+        return true;
+    }
+
+    /**
+     * Sends the help message lines to a command sender.
+     */
+    private void sendHelp(CommandSender sender, String label) {
+        for (MessageTemplate line : Lang.getList(sender, "help")) {
+            sender.sendMessage(line.render("label", label));
+        }
+    }
+
+    /**
+     * Resolves a player name or target selector. Selectors, online players and
+     * tracked players are resolved right away on the sender's thread. Other
+     * names are looked up on the I/O executor, in the database while the name
+     * index is still loading and in the server's user cache otherwise.
+     */
+    private CompletableFuture<List<Target>> resolveTargets(CommandSender sender, String arg) {
+        List<Target> targets = new ArrayList<>();
+        try {
+            List<org.bukkit.entity.Entity> entities = Bukkit.selectEntities(sender, arg);
+            for (org.bukkit.entity.Entity entity : entities) {
+                if (entity instanceof Player) {
+                    targets.add(new Target((Player) entity));
+                }
+            }
+        } catch (IllegalArgumentException | NoSuchMethodError ignored) {
+        }
+        if (targets.isEmpty()) {
+            Player online = Bukkit.getPlayerExact(arg);
+            if (online != null) {
+                targets.add(new Target(online));
+            }
+        }
+        if (targets.isEmpty()) {
+            UsernameIndex.Entry tracked = plugin.getUsernameIndex().find(arg);
+            if (tracked != null) {
+                targets.add(new Target(tracked.getUuid(), tracked.getName(), null));
+            }
+        }
+        if (!targets.isEmpty()) {
+            return CompletableFuture.completedFuture(targets);
+        }
+
+        boolean indexed = plugin.getUsernameIndex().isLoaded();
+        return plugin.getIoExecutor().supply(() -> {
+            UsernameIndex.Entry tracked = indexed ? null : plugin.getDatabase().findByUsername(arg);
+            if (tracked != null) {
+                targets.add(new Target(tracked.getUuid(), tracked.getName(), null));
+                return targets;
+            }
+            // Never tracked: only players the server has seen, without remote profile lookups
+            OfflinePlayer target = Bukkit.getOfflinePlayerIfCached(arg);
+            if (target != null) {
+                targets.add(new Target(target.getUniqueId(), target.getName(), null));
+            }
+            return targets;
+        });
+    }
+
+    private void handleGet(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("totalxp.view")) {
+            Lang.send(sender, "no-permission");
+            return;
+        }
+        if (args.length < 2) {
+            sendHelp(sender, "totalxp");
+            return;
+        }
+        resolveTargets(sender, args[1]).thenApplyAsync(targets -> {
+            List<Component> replies = new ArrayList<>();
+            for (Target target : targets) {
+                String name = target.name != null ? target.name : args[1];
+
+                long xp;
+                PlayerData data = plugin.getPlayerDataManager().getData(target.uuid);
+                if (data != null) {
+                    // Online/Cached
+                    plugin.getStats().playerCacheHits.increment();
+                    xp = data.getTotalXp();
+                } else {
+                    // Offline fallback
+                    plugin.getStats().playerCacheMisses.increment();
+                    xp = plugin.getDatabase().getXp(target.uuid);
+                }
+
+                replies.add(Lang.render(sender, "xp-view", "player", name, "xp", String.valueOf(xp)));
+            }
+            return replies;
+        }, plugin.getIoExecutor()).whenComplete((replies, error) -> reply(sender, replies, error));
+    }
+
+    private void handleSet(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("totalxp.admin")) {
+            Lang.send(sender, "no-permission");
+            return;
+        }
+        if (args.length < 3) {
+            sendHelp(sender, "totalxp");
+            return;
+        }
+        String amountStr = args[2];
+        long amount;
+        try {
+            amount = Long.parseLong(amountStr);
+            if (amount < 0) {
+                Lang.send(sender, "negative-amount");
+                return;
+            }
+        } catch (NumberFormatException e) {
+            Lang.send(sender, "invalid-number");
+            return;
+        }
+        resolveTargets(sender, args[1]).thenApplyAsync(targets -> {
+            List<Component> replies = new ArrayList<>();
+            for (Target target : targets) {
+                String name = target.name != null ? target.name : "?";
+                String rankName = plugin.getRankName(amount);
+
+                PlayerData data = plugin.getPlayerDataManager().getData(target.uuid);
+                if (data != null) {
+                    // Online/Cached
+                    long previous = data.setXp(amount, rankName);
+                    plugin.getRankDistribution().onXpChange(previous, amount);
+                    plugin.getDatabase().savePlayer(data);
+                } else {
+                    // Offline
+                    Long previous = plugin.getDatabase().findXp(target.uuid);
+                    if (previous != null) {
+                        plugin.getRankDistribution().onXpChange(previous, amount);
+                    } else {
+                        plugin.getRankDistribution().addPlayer(amount);
+                    }
+                    plugin.getDatabase().setPlayerData(target.uuid, amount, name, rankName);
+                    plugin.getUsernameIndex().put(target.uuid, target.name);
+                }
+                // Supersedes journaled gains from before the change
+                plugin.getJournal().supersede(target.uuid, amount);
+
+                replies.add(Lang.render(sender, "xp-set", "player", name, "amount", String.valueOf(amount)));
+
+                // If online, update bossbar on the target's thread
+                updateBossBar(target, amount);
+            }
+            return replies;
+        }, plugin.getIoExecutor()).whenComplete((replies, error) -> reply(sender, replies, error));
+    }
+
+    private void handleReset(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("totalxp.admin")) {
+            Lang.send(sender, "no-permission");
+            return;
+        }
+        if (args.length < 2) {
+            sendHelp(sender, "totalxp");
+            return;
+        }
+        resolveTargets(sender, args[1]).thenApplyAsync(targets -> {
+            List<Component> replies = new ArrayList<>();
+            for (Target target : targets) {
+                String name = target.name != null ? target.name : "?";
+
+                PlayerData data = plugin.getPlayerDataManager().getData(target.uuid);
+                Long previous = data == null ? plugin.getDatabase().findXp(target.uuid) : null;
+
+                plugin.getDatabase().resetPlayer(target.uuid);
+
+                if (data != null) {
+                    // Still online, so still counted (saved again on quit)
+                    long old = data.setXp(0, plugin.getRankName(0));
+                    plugin.getRankDistribution().onXpChange(old, 0);
+                } else if (previous != null) {
+                    plugin.getRankDistribution().removePlayer(previous);
+                }
+                plugin.getJournal().supersede(target.uuid, 0);
+
+                replies.add(Lang.render(sender, "xp-reset", "player", name));
+                updateBossBar(target, 0);
+            }
+            return replies;
+        }, plugin.getIoExecutor()).whenComplete((replies, error) -> reply(sender, replies, error));
+    }
+
+    private void updateBossBar(Target target, long xp) {
+        if (target.player != null && plugin.getBossBarManager() != null) {
+            plugin.getPlatformScheduler().runForEntity(target.player,
+                    () -> plugin.getBossBarManager().update(target.player, xp));
+        }
+    }
+
+    /**
+     * Sends the result of an asynchronous subcommand once it is ready, on the
+     * sender's thread (the main thread on Paper).
+     */
+    private void reply(CommandSender sender, List<Component> replies, Throwable error) {
+        if (error != null) {
+            plugin.getLogger().log(Level.SEVERE, "Command failed", error);
+        }
+        Runnable send = () -> {
+            if (error != null) {
+                Lang.send(sender, "command-failed");
+            } else if (replies.isEmpty()) {
+                Lang.send(sender, "player-not-found");
+            } else {
+                for (Component line : replies) {
+                    sender.sendMessage(line);
+                }
+            }
+        };
+        if (sender instanceof Player) {
+            plugin.getPlatformScheduler().runForEntity((Player) sender, send);
+        } else {
+            plugin.getPlatformScheduler().runSync(send);
+        }
+    }
+
+    private void handleReload(CommandSender sender) {
+        if (!sender.hasPermission("totalxp.admin")) {
+            Lang.send(sender, "no-permission");
+            return;
+        }
+        plugin.reloadSettings();
+        Lang.sendPrefixed(sender, "reload-done");
+    }
+
+    private void handleReconcile(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("totalxp.admin")) {
+            Lang.send(sender, "no-permission");
+            return;
+        }
+        RewardReconciler reconciler = plugin.getRewardReconciler();
+        String action = args.length >= 2 ? args[1].toLowerCase() : "start";
+
+        switch (action) {
+            case "start":
+                if (reconciler.start(sender)) {
+                    Lang.send(sender, "reconcile-started");
+                } else {
+                    Lang.send(sender, "reconcile-running");
+                }
+                break;
+            case "status":
+                reconciler.sendStatus(sender);
+                break;
+            case "stop":
+                if (reconciler.isRunning()) {
+                    reconciler.stop();
+                } else {
+                    Lang.send(sender, "reconcile-not-running");
+                }
+                break;
+            default:
+                sendHelp(sender, "totalxp");
+        }
+    }
+
+    private void handleStats(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("totalxp.admin")) {
+            Lang.send(sender, "no-permission");
+            return;
+        }
+        PluginStats stats = plugin.getStats();
+        if (args.length >= 2 && args[1].equalsIgnoreCase("reset")) {
+            stats.reset();
+            Lang.send(sender, "stats-reset");
+            return;
+        }
+
+        Lang.send(sender, "stats-header");
+        for (PluginStats.Timer timer : stats.getTimers()) {
+            if (timer.getCount() == 0) {
+                continue;
+            }
+            Lang.send(sender, "stats-timer",
+                    "name", timer.getName(),
+                    "count", String.valueOf(timer.getCount()),
+                    "mean", String.valueOf(timer.getMeanNanos() / 1000L),
+                    "p50", String.valueOf(timer.getPercentileNanos(0.50) / 1000L),
+                    "p99", String.valueOf(timer.getPercentileNanos(0.99) / 1000L),
+                    "max", String.valueOf(timer.getMaxNanos() / 1000L));
+        }
+        for (PluginStats.Counter counter : stats.getCounters()) {
+            Lang.send(sender, "stats-value", "name", counter.getName(), "value", String.valueOf(counter.get()));
+        }
+        for (java.util.Map.Entry<String, java.util.function.LongSupplier> gauge : stats.getGauges().entrySet()) {
+            Lang.send(sender, "stats-value", "name", gauge.getKey(),
+                    "value", String.valueOf(gauge.getValue().getAsLong()));
+        }
+    }
+
+    private void handleShow(CommandSender sender) {
+        if (!(sender instanceof Player)) {
+            Lang.sendPrefixed(sender, "players-only");
+            return;
+        }
+        Player player = (Player) sender;
+        if (plugin.getBossBarManager() != null) {
+            plugin.getBossBarManager().showBar(player);
+            Lang.sendPrefixed(player, "bossbar-shown");
+        }
+    }
+
+    private void handleHide(CommandSender sender) {
+        if (!(sender instanceof Player)) {
+            Lang.sendPrefixed(sender, "players-only");
+            return;
+        }
+        Player player = (Player) sender;
+        if (plugin.getBossBarManager() != null) {
+            plugin.getBossBarManager().hideBar(player);
+            Lang.sendPrefixed(player, "bossbar-hidden");
+        }
+    }
+
+    /**
+     * Suggests selectors and tracked player names (online players included)
+     * starting with a prefix. Safe to call from any thread; does not iterate
+     * the online players.
+     */
+    void completeTargets(String prefix, List<String> out) {
+        if (prefix.isEmpty() || prefix.charAt(0) == '@') {
+            for (String selector : SELECTORS) {
+                if (selector.startsWith(prefix)) {
+                    out.add(selector);
+                }
+            }
+        }
+        plugin.getUsernameIndex().complete(prefix, MAX_NAME_SUGGESTIONS, out);
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        List<String> result = new ArrayList<>();
+
+        if (args.length == 1) {
+            String prefix = args[0].toLowerCase();
+            if ("get".startsWith(prefix))
+                result.add("get");
+            if ("set".startsWith(prefix) && sender.hasPermission("totalxp.admin"))
+                result.add("set");
+            if ("reset".startsWith(prefix) && sender.hasPermission("totalxp.admin"))
+                result.add("reset");
+            if ("reload".startsWith(prefix) && sender.hasPermission("totalxp.admin"))
+                result.add("reload");
+            if ("show".startsWith(prefix))
+                result.add("show");
+            if ("hide".startsWith(prefix))
+                result.add("hide");
+            if ("reconcile".startsWith(prefix) && sender.hasPermission("totalxp.admin"))
+                result.add("reconcile");
+            if ("stats".startsWith(prefix) && sender.hasPermission("totalxp.admin"))
+                result.add("stats");
+            return result;
+        }
+
+        if (args.length == 2 && args[0].equalsIgnoreCase("reconcile")
+                && sender.hasPermission("totalxp.admin")) {
+            String actionPrefix = args[1].toLowerCase();
+            for (String action : new String[] { "start", "status", "stop" }) {
+                if (action.startsWith(actionPrefix))
+                    result.add(action);
+            }
+            return result;
+        }
+
+        if (args.length == 2 && args[0].equalsIgnoreCase("stats") && sender.hasPermission("totalxp.admin")) {
+            if ("reset".startsWith(args[1].toLowerCase()))
+                result.add("reset");
+            return result;
+        }
+
+        if (args.length == 2 && (args[0].equalsIgnoreCase("get")
+                || args[0].equalsIgnoreCase("set")
+                || args[0].equalsIgnoreCase("reset"))) {
+            completeTargets(args[1], result);
+        }
+
+        return result;
+    }
+
+    /**
+     * A resolved command target. {@code player} is set if the target was online
+     * when the command ran.
+     */
+    private static final class Target {
+        private final UUID uuid;
+        private final String name;
+        private final Player player;
+
+        Target(Player player) {
+            this(player.getUniqueId(), player.getName(), player);
+        }
+
+        Target(UUID uuid, String name, Player player) {
+            this.uuid = uuid;
+            this.name = name;
+            this.player = player;
+        }
+    }
+}
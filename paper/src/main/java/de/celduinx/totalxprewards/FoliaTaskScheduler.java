@@ -0,0 +1,94 @@
+package de.celduinx.totalxprewards;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PlatformScheduler} for Folia. There is no main thread: sync tasks run
+ * on the global region, entity tasks on the entity's region and async tasks on
+ * the async scheduler, which counts in wall-clock time (one tick = 50 ms).
+ */
+public class FoliaTaskScheduler implements PlatformScheduler {
+
+    private static final long MILLIS_PER_TICK = 50L;
+
+    private final Plugin plugin;
+
+    public FoliaTaskScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void runSync(Runnable task) {
+        Bukkit.getGlobalRegionScheduler().execute(plugin, task);
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        Bukkit.getAsyncScheduler().runNow(plugin, scheduled -> task.run());
+    }
+
+    @Override
+    public void runAsyncLater(Runnable task, long delayTicks) {
+        if (delayTicks <= 0) {
+            runAsync(task);
+            return;
+        }
+        Bukkit.getAsyncScheduler().runDelayed(plugin, scheduled -> task.run(),
+                delayTicks * MILLIS_PER_TICK, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void runSyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        // Folia rejects initial delays below one tick
+        Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, scheduled -> task.run(),
+                Math.max(1L, delayTicks), Math.max(1L, periodTicks));
+    }
+
+    @Override
+    public void runAsyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        Bukkit.getAsyncScheduler().runAtFixedRate(plugin, scheduled -> task.run(),
+                Math.max(0L, delayTicks) * MILLIS_PER_TICK, Math.max(1L, periodTicks) * MILLIS_PER_TICK,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task) {
+        entity.getScheduler().run(plugin, scheduled -> task.run(), null);
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task, Runnable retired) {
+        // null if the entity was already removed, in which case retired is not called
+        if (entity.getScheduler().run(plugin, scheduled -> task.run(), retired) == null) {
+            retired.run();
+        }
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        if (Bukkit.isGlobalTickThread()) {
+            task.run();
+        } else {
+            runSync(task);
+        }
+    }
+
+    @Override
+    public Task runForEntityLater(Entity entity, Runnable task, long delayTicks) {
+        ScheduledTask scheduled = entity.getScheduler().runDelayed(plugin, t -> task.run(), null,
+                Math.max(1L, delayTicks));
+        // null if the entity was already removed
+        return scheduled != null ? scheduled::cancel : () -> {
+        };
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread(Entity entity) {
+        return Bukkit.isOwnedByCurrentRegion(entity);
+    }
+}
@@ -0,0 +1,401 @@
+package de.celduinx.totalxprewards;
+
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Utility class for loading and retrieving translatable messages from a YAML
+ * file.
+ *
+ * <p>
+ * This class loads {@code lang.yml} from the plugin's data folder, copying the
+ * default version from the JAR on first run. It also maintains a set of
+ * built‑in English defaults so that missing keys in the external file do not
+ * produce null messages.
+ * </p>
+ *
+ * <p>
+ * Translations live next to it as {@code lang_<locale>.yml} and are chosen by
+ * the player's client locale.
+ * </p>
+ *
+ * <p>
+ * On every (re)load all messages are compiled into {@link MessageTemplate}s:
+ * colour codes prefixed with {@code &} are translated once, and sending a
+ * message only fills in its {@code %placeholders%}. The compiled catalog is
+ * immutable and swapped as a whole, so it can be read from any thread.
+ * </p>
+ */
+public final class Lang {
+
+    private static final Map<String, Object> defaults = new HashMap<>();
+    // Swapped on reload, read from every region thread on Folia
+    private static volatile Catalogs catalogs = new Catalogs(
+            new Catalog(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap()),
+            Collections.emptyMap());
+
+    private Lang() {
+        // utility class
+    }
+
+    /**
+     * Initialises the language system and loads messages. This should be called
+     * once from the plugin's {@code onEnable()} method.
+     *
+     * @param plugin the plugin instance
+     */
+    public static void init(JavaPlugin plugin) {
+        // Define built‑in defaults. These act as fallbacks when keys are missing.
+        defaults.put("prefix", "&7[&aTotalXP&7] ");
+        defaults.put("no-permission", "&cYou do not have permission.");
+        defaults.put("player-not-found", "&cPlayer not found.");
+        defaults.put("invalid-number", "&cPlease enter a valid number.");
+        defaults.put("negative-amount", "&cAmount must not be negative.");
+        defaults.put("players-only", "&cOnly players can use this command.");
+        defaults.put("broadcast-summary", "&e%count% &arank-ups: &e%players%");
+        defaults.put("starting", "&eTotalXPRewards is still starting, please try again in a moment.");
+        defaults.put("command-failed", "&cThe command failed, see the console for details.");
+        defaults.put("xp-view", "&a%player% has &e%xp% &atotal XP.");
+        defaults.put("xp-set", "&aSet &e%player%&a's XP to &e%amount%.");
+        defaults.put("xp-reset", "&aReset XP of &e%player%&a.");
+        defaults.put("max-rank", "Max Rank");
+        defaults.put("bossbar-shown", "&aBossBar shown.");
+        defaults.put("bossbar-hidden", "&aBossBar hidden.");
+        defaults.put("reload-done", "&aTotal XP Rewards config and language reloaded.");
+        defaults.put("reconcile-started", "&aReward reconciliation started.");
+        defaults.put("reconcile-running", "&cA reward reconciliation is already running.");
+        defaults.put("reconcile-not-running", "&7No reward reconciliation is running.");
+        defaults.put("reconcile-status",
+                "&aReconciliation: &e%processed%&7/&e%total% &aplayers (&e%percent%%&a), &e%found% &amissing rewards.");
+        defaults.put("reconcile-finished", "&aReconciliation finished: &e%found% &amissing rewards granted.");
+        defaults.put("reconcile-stopped", "&cReconciliation stopped after &e%processed% &cplayers.");
+        defaults.put("stats-header", "&7---- &aTotal XP Rewards Stats &7----");
+        defaults.put("stats-timer",
+                "&e%name%&7: &f%count%x&7, avg &f%mean%µs&7, p50 &f%p50%µs&7, p99 &f%p99%µs&7, max &f%max%µs");
+        defaults.put("stats-value", "&e%name%&7: &f%value%");
+        defaults.put("stats-reset", "&aStats reset.");
+        defaults.put("help", java.util.Arrays.asList(
+                "&7---- &aTotal XP Rewards Help &7----",
+                "&a/%label% get <player> &7- Show player's total XP",
+                "&a/%label% set <player> <amount> &7- Set player's total XP",
+                "&a/%label% reset <player> &7- Reset player's total XP",
+                "&a/%label% reload &7- Reload config and language",
+                "&a/%label% reconcile [start|status|stop] &7- Grant missed rewards to all players",
+                "&a/%label% stats [reset] &7- Show timings of the plugin's hot paths"));
+
+        reload(plugin);
+    }
+
+    /**
+     * Reloads the language files. This reads {@code lang.yml} from the data
+     * folder, copying the default version from the JAR if necessary, and sets
+     * up defaults from any bundled resource. Every {@code lang_<locale>.yml}
+     * next to it (e.g. {@code lang_de_de.yml} or {@code lang_de.yml}) is
+     * compiled as a translation; keys it leaves out fall back to
+     * {@code lang.yml}. Should be called when reloading plugin settings.
+     *
+     * @param plugin the plugin instance
+     */
+    public static void reload(JavaPlugin plugin) {
+        File file = new File(plugin.getDataFolder(), "lang.yml");
+        if (!file.exists()) {
+            // Copy the default language file from the JAR on first run
+            plugin.saveResource("lang.yml", false);
+        }
+        FileConfiguration config = YamlConfiguration.loadConfiguration(file);
+
+        // Load defaults from a resource inside the JAR, if present. This ensures
+        // that any keys defined in the default file act as fallbacks in the
+        // external file.
+        InputStream defConfigStream = plugin.getResource("lang.yml");
+        if (defConfigStream != null) {
+            YamlConfiguration defConfig = YamlConfiguration.loadConfiguration(new InputStreamReader(defConfigStream));
+            config.setDefaults(defConfig);
+        }
+        Catalog fallback = compile(config, null);
+
+        Map<String, Catalog> translations = new HashMap<>();
+        File[] files = plugin.getDataFolder().listFiles((dir, name) -> name.startsWith("lang_") && name.endsWith(".yml"));
+        if (files != null) {
+            for (File translation : files) {
+                String name = translation.getName();
+                String tag = name.substring("lang_".length(), name.length() - ".yml".length()).toLowerCase(Locale.ROOT);
+                translations.put(tag, compile(YamlConfiguration.loadConfiguration(translation), fallback));
+            }
+            if (!translations.isEmpty()) {
+                plugin.getLogger().info("Loaded translations: " + String.join(", ", translations.keySet()));
+            }
+        }
+        catalogs = new Catalogs(fallback, translations);
+    }
+
+    /**
+     * Retrieves a compiled message from {@code lang.yml}. If the key is missing
+     * entirely, the built‑in default is used instead.
+     *
+     * @param key the configuration key
+     * @return the message, empty if undefined
+     */
+    public static MessageTemplate message(String key) {
+        return catalogs.fallback.message(key);
+    }
+
+    /**
+     * Retrieves a compiled message in the receiver's language: players get the
+     * translation for their client locale, everyone else {@code lang.yml}.
+     *
+     * @param to  the receiver
+     * @param key the configuration key
+     * @return the message, empty if undefined
+     */
+    public static MessageTemplate message(Audience to, String key) {
+        return catalogFor(to).message(key);
+    }
+
+    /**
+     * Renders a message from {@code lang.yml}.
+     *
+     * @param key          the configuration key
+     * @param placeholders alternating placeholder names and values
+     * @return the rendered message
+     */
+    public static Component render(String key, String... placeholders) {
+        return message(key).render(placeholders);
+    }
+
+    /**
+     * Renders a message in the receiver's language.
+     *
+     * @param to           the receiver
+     * @param key          the configuration key
+     * @param placeholders alternating placeholder names and values
+     * @return the rendered message
+     */
+    public static Component render(Audience to, String key, String... placeholders) {
+        return message(to, key).render(placeholders);
+    }
+
+    /**
+     * Renders a message in the receiver's language and sends it, unless it is
+     * configured empty.
+     *
+     * @param to           the receiver, e.g. a command sender
+     * @param key          the configuration key
+     * @param placeholders alternating placeholder names and values
+     */
+    public static void send(Audience to, String key, String... placeholders) {
+        MessageTemplate template = message(to, key);
+        if (!template.isEmpty()) {
+            to.sendMessage(template.render(placeholders));
+        }
+    }
+
+    /**
+     * Like {@link #send}, with the {@code prefix} message in front.
+     */
+    public static void sendPrefixed(Audience to, String key, String... placeholders) {
+        Catalog catalog = catalogFor(to);
+        to.sendMessage(Component.textOfChildren(catalog.message("prefix").render(),
+                catalog.message(key).render(placeholders)));
+    }
+
+    /**
+     * Sends a message to every online player and the console, with the
+     * {@code prefix} message of each receiver's language in front. The
+     * prefixed line is built once per language, not once per player.
+     *
+     * @param message the message, already rendered
+     */
+    public static void broadcastPrefixed(Component message) {
+        broadcast(catalog -> Component.textOfChildren(catalog.message("prefix").render(), message));
+    }
+
+    /**
+     * Like {@link #broadcastPrefixed(Component)}, with the message rendered
+     * from {@code key} in each receiver's language.
+     *
+     * @param key          the configuration key
+     * @param placeholders alternating placeholder names and values
+     */
+    public static void broadcastPrefixed(String key, String... placeholders) {
+        broadcast(catalog -> Component.textOfChildren(catalog.message("prefix").render(),
+                catalog.message(key).render(placeholders)));
+    }
+
+    private static void broadcast(Function<Catalog, Component> renderer) {
+        Map<Catalog, Component> lines = new IdentityHashMap<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            player.sendMessage(lines.computeIfAbsent(catalogFor(player), renderer));
+        }
+        Bukkit.getConsoleSender().sendMessage(lines.computeIfAbsent(catalogs.fallback, renderer));
+    }
+
+    /**
+     * Retrieves a compiled list of messages in the receiver's language. If the
+     * key is missing or empty, the built‑in default list is used instead.
+     *
+     * @param to  the receiver
+     * @param key the configuration key
+     * @return the messages, or an empty list if undefined
+     */
+    public static List<MessageTemplate> getList(Audience to, String key) {
+        return catalogFor(to).list(key);
+    }
+
+    /**
+     * Retrieves a message as written in the receiver's language file, without
+     * translating colour codes, e.g. to insert it into another template.
+     *
+     * @param to  the receiver
+     * @param key the configuration key
+     * @return the raw message, or an empty string if undefined
+     */
+    public static String raw(Audience to, String key) {
+        return catalogFor(to).raw(key);
+    }
+
+    private static Catalog catalogFor(Audience to) {
+        return to instanceof Player ? catalogs.forLocale(((Player) to).locale()) : catalogs.fallback;
+    }
+
+    /**
+     * Compiles a language file.
+     *
+     * @param config   the file's contents
+     * @param fallback the catalog used for keys the file does not define, or
+     *                 {@code null} to fall back to the built‑in defaults
+     */
+    @SuppressWarnings("unchecked")
+    private static Catalog compile(ConfigurationSection config, Catalog fallback) {
+        Set<String> keys = new LinkedHashSet<>(defaults.keySet());
+        if (fallback != null) {
+            keys.addAll(fallback.messages.keySet());
+            keys.addAll(fallback.lists.keySet());
+        }
+        keys.addAll(config.getKeys(true));
+
+        Map<String, MessageTemplate> messages = new HashMap<>();
+        Map<String, List<MessageTemplate>> lists = new HashMap<>();
+        Map<String, String> raw = new HashMap<>();
+        for (String key : keys) {
+            Object value = config.get(key);
+            if (value == null || (value instanceof List && ((List<?>) value).isEmpty())) {
+                if (fallback != null) {
+                    // Share the already compiled templates
+                    copy(fallback, key, messages, lists, raw);
+                    continue;
+                }
+                value = defaults.get(key);
+            }
+            if (value instanceof String) {
+                raw.put(key, (String) value);
+                messages.put(key, MessageTemplate.compile((String) value));
+            } else if (value instanceof List) {
+                List<MessageTemplate> lines = new ArrayList<>();
+                for (Object line : (List<Object>) value) {
+                    lines.add(MessageTemplate.compile(String.valueOf(line)));
+                }
+                lists.put(key, Collections.unmodifiableList(lines));
+            } else if (value != null && !(value instanceof ConfigurationSection)) {
+                raw.put(key, value.toString());
+                messages.put(key, MessageTemplate.compile(value.toString()));
+            }
+        }
+        return new Catalog(messages, lists, raw);
+    }
+
+    private static void copy(Catalog from, String key, Map<String, MessageTemplate> messages,
+            Map<String, List<MessageTemplate>> lists, Map<String, String> raw) {
+        if (from.messages.containsKey(key)) {
+            messages.put(key, from.messages.get(key));
+            raw.put(key, from.raw.get(key));
+        }
+        if (from.lists.containsKey(key)) {
+            lists.put(key, from.lists.get(key));
+        }
+    }
+
+    /**
+     * One compiled language file.
+     */
+    private static final class Catalog {
+        private final Map<String, MessageTemplate> messages;
+        private final Map<String, List<MessageTemplate>> lists;
+        private final Map<String, String> raw;
+
+        Catalog(Map<String, MessageTemplate> messages, Map<String, List<MessageTemplate>> lists,
+                Map<String, String> raw) {
+            this.messages = messages;
+            this.lists = lists;
+            this.raw = raw;
+        }
+
+        MessageTemplate message(String key) {
+            MessageTemplate template = messages.get(key);
+            return template != null ? template : MessageTemplate.EMPTY;
+        }
+
+        List<MessageTemplate> list(String key) {
+            List<MessageTemplate> list = lists.get(key);
+            return list != null ? list : Collections.emptyList();
+        }
+
+        String raw(String key) {
+            String value = raw.get(key);
+            return value != null ? value : "";
+        }
+    }
+
+    /**
+     * {@code lang.yml} plus its translations, with the catalog chosen for each
+     * client locale memoized.
+     */
+    private static final class Catalogs {
+        private final Catalog fallback;
+        /** Translations by lowercase tag, e.g. "de_de" or "de". */
+        private final Map<String, Catalog> translations;
+        private final Map<Locale, Catalog> byLocale = new ConcurrentHashMap<>();
+
+        Catalogs(Catalog fallback, Map<String, Catalog> translations) {
+            this.fallback = fallback;
+            this.translations = translations;
+        }
+
+        Catalog forLocale(Locale locale) {
+            if (translations.isEmpty() || locale == null) {
+                return fallback;
+            }
+            return byLocale.computeIfAbsent(locale, this::resolve);
+        }
+
+        // Exact locale ("de_de"), then language only ("de"), then lang.yml
+        private Catalog resolve(Locale locale) {
+            Catalog catalog = translations.get(locale.toString().toLowerCase(Locale.ROOT));
+            if (catalog == null) {
+                catalog = translations.get(locale.getLanguage().toLowerCase(Locale.ROOT));
+            }
+            return catalog != null ? catalog : fallback;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package de.celduinx.totalxprewards;
+
+/**
+ * Converts legacy colour codes to MiniMessage tags in a single pass, so that
+ * legacy and MiniMessage formatting can be mixed in one template (e.g.
+ * {@code "&bTitle: <gradient:red:blue>...</gradient>"}).
+ * <p>
+ * Both {@code &} and {@code §} codes are recognised, as PlaceholderAPI
+ * expansions usually return the latter, plus the hex forms {@code &#RRGGBB}
+ * and {@code &x&R&R&G&G&B&B}. An {@code &} that does not start a code, as in
+ * {@code "Salt & Pepper"}, is left as written.
+ * </p>
+ * <p>
+ * As in legacy text, a colour ends the formats before it: {@code "&a&lA &bB"}
+ * only makes {@code A} bold. MiniMessage colours do not, so a {@code <reset>}
+ * is emitted before a colour that follows a legacy format code.
+ * </p>
+ */
+final class LegacyConverter {
+
+    /** MiniMessage tag by lowercase legacy code character. */
+    private static final String[] TAGS = new String[128];
+
+    static {
+        TAGS['0'] = "<black>";
+        TAGS['1'] = "<dark_blue>";
+        TAGS['2'] = "<dark_green>";
+        TAGS['3'] = "<dark_aqua>";
+        TAGS['4'] = "<dark_red>";
+        TAGS['5'] = "<dark_purple>";
+        TAGS['6'] = "<gold>";
+        TAGS['7'] = "<gray>";
+        TAGS['8'] = "<dark_gray>";
+        TAGS['9'] = "<blue>";
+        TAGS['a'] = "<green>";
+        TAGS['b'] = "<aqua>";
+        TAGS['c'] = "<red>";
+        TAGS['d'] = "<light_purple>";
+        TAGS['e'] = "<yellow>";
+        TAGS['f'] = "<white>";
+        TAGS['k'] = "<obfuscated>";
+        TAGS['l'] = "<bold>";
+        TAGS['m'] = "<strikethrough>";
+        TAGS['n'] = "<underlined>";
+        TAGS['o'] = "<italic>";
+        TAGS['r'] = "<reset>";
+    }
+
+    // Templates are rendered on region and async threads alike
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    private static final int MAX_RETAINED_CAPACITY = 4096;
+
+    private LegacyConverter() {
+        // utility class
+    }
+
+    /**
+     * @param text text with legacy colour codes, MiniMessage tags or both
+     * @return the text with every legacy code replaced by its MiniMessage tag,
+     *         or {@code text} itself if it contains none
+     */
+    static String toMiniMessage(String text) {
+        int i = nextMarker(text, 0);
+        if (i < 0) {
+            return text;
+        }
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        int length = text.length();
+        int copied = 0;
+        boolean formatted = false;
+        while (i >= 0) {
+            char code = i + 1 < length ? Character.toLowerCase(text.charAt(i + 1)) : 0;
+            int end;
+            boolean colour;
+            String tag = null;
+            if (code == '#' && isHexRun(text, i + 2, 6, 1)) {
+                end = i + 8;
+                colour = true;
+            } else if (code == 'x' && isHexRun(text, i + 3, 6, 2)) {
+                end = i + 14;
+                colour = true;
+            } else if (code < TAGS.length && TAGS[code] != null) {
+                end = i + 2;
+                tag = TAGS[code];
+                colour = code <= 'f';
+            } else {
+                // Not a code: keep the character and look further
+                i = nextMarker(text, i + 1);
+                continue;
+            }
+
+            sb.append(text, copied, i);
+            if (colour && formatted) {
+                sb.append("<reset>");
+            }
+            if (tag != null) {
+                sb.append(tag);
+            } else {
+                // &#RRGGBB has a digit every char, &x&R&R... every other char
+                int step = code == '#' ? 1 : 2;
+                sb.append("<#");
+                for (int d = 0, at = code == '#' ? i + 2 : i + 3; d < 6; d++, at += step) {
+                    sb.append(Character.toLowerCase(text.charAt(at)));
+                }
+                sb.append('>');
+            }
+            formatted = !colour && code != 'r';
+            copied = end;
+            i = nextMarker(text, end);
+        }
+        sb.append(text, copied, length);
+        String result = sb.toString();
+        if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+            // Don't pin a buffer sized for one unusually long message
+            BUFFER.remove();
+        }
+        return result;
+    }
+
+    private static int nextMarker(String text, int from) {
+        for (int i = from, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '&' || c == '§') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks for {@code count} hex digits starting at {@code start}, each
+     * {@code step} characters apart and, for a step of 2, each preceded by a
+     * code marker.
+     */
+    private static boolean isHexRun(String text, int start, int count, int step) {
+        if (start + (count - 1) * step >= text.length()) {
+            return false;
+        }
+        for (int d = 0, at = start; d < count; d++, at += step) {
+            if (!isHexDigit(text.charAt(at))) {
+                return false;
+            }
+            if (step == 2) {
+                char marker = text.charAt(at - 1);
+                if (marker != '&' && marker != '§') {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+}
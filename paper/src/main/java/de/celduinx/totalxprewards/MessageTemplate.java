@@ -0,0 +1,178 @@
+package de.celduinx.totalxprewards;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A message parsed once into styled runs of text with {@code %name%}
+ * placeholder slots. Rendering fills the slots without re-translating colour
+ * codes: runs without placeholders are shared, prebuilt components, and each
+ * run with placeholders costs one string and one text component.
+ * <p>
+ * Placeholder values are inserted as plain text and never parsed, so a player
+ * name cannot inject formatting. Placeholders without a value are left as
+ * written.
+ * </p>
+ */
+public final class MessageTemplate {
+
+    static final MessageTemplate EMPTY = new MessageTemplate(new Run[0]);
+
+    private final Run[] runs;
+
+    private MessageTemplate(Run[] runs) {
+        this.runs = runs;
+    }
+
+    /**
+     * Compiles a message written with {@code &} colour codes.
+     */
+    static MessageTemplate compile(String text) {
+        if (text == null || text.isEmpty()) {
+            return EMPTY;
+        }
+        Component parsed = LegacyComponentSerializer.legacyAmpersand().deserialize(text);
+        List<Run> runs = new ArrayList<>();
+        flatten(parsed, Style.empty(), runs);
+        return new MessageTemplate(runs.toArray(new Run[0]));
+    }
+
+    /**
+     * Renders the message.
+     *
+     * @param placeholders alternating placeholder names (without {@code %}) and
+     *                     values, e.g. {@code "player", name, "xp", "100"}
+     * @return the rendered message
+     */
+    public Component render(String... placeholders) {
+        switch (runs.length) {
+            case 0:
+                return Component.empty();
+            case 1:
+                return runs[0].render(placeholders);
+            default:
+                TextComponent.Builder builder = Component.text();
+                for (Run run : runs) {
+                    builder.append(run.render(placeholders));
+                }
+                return builder.build();
+        }
+    }
+
+    /**
+     * @return {@code true} if the message renders to nothing
+     */
+    public boolean isEmpty() {
+        return runs.length == 0;
+    }
+
+    /**
+     * Splits a component tree into runs that each carry their full, inherited
+     * style, so they can be appended side by side.
+     */
+    private static void flatten(Component component, Style parent, List<Run> runs) {
+        Style style = parent.merge(component.style());
+        if (component instanceof TextComponent) {
+            String content = ((TextComponent) component).content();
+            if (!content.isEmpty()) {
+                runs.add(Run.compile(content, style));
+            }
+        } else {
+            runs.add(new Run(component.children(Collections.emptyList()).style(style), null, null, style));
+        }
+        for (Component child : component.children()) {
+            flatten(child, style, runs);
+        }
+    }
+
+    /**
+     * Text in one style: either a fixed component, or literals interleaved with
+     * placeholder names ({@code literals.length == slots.length + 1}).
+     */
+    private static final class Run {
+        private final Component fixed;
+        private final String[] literals;
+        private final String[] slots;
+        private final Style style;
+
+        private Run(Component fixed, String[] literals, String[] slots, Style style) {
+            this.fixed = fixed;
+            this.literals = literals;
+            this.slots = slots;
+            this.style = style;
+        }
+
+        static Run compile(String content, Style style) {
+            List<String> literals = new ArrayList<>();
+            List<String> slots = new ArrayList<>();
+            int literalStart = 0;
+            int i = content.indexOf('%');
+            while (i >= 0) {
+                int end = content.indexOf('%', i + 1);
+                if (end < 0) {
+                    break;
+                }
+                if (isPlaceholderName(content, i + 1, end)) {
+                    literals.add(content.substring(literalStart, i));
+                    slots.add(content.substring(i + 1, end));
+                    literalStart = end + 1;
+                    i = content.indexOf('%', literalStart);
+                } else {
+                    // Lone '%', e.g. "50%": the closing one may open the next placeholder
+                    i = end;
+                }
+            }
+            if (slots.isEmpty()) {
+                return new Run(Component.text(content, style), null, null, style);
+            }
+            literals.add(content.substring(literalStart));
+            return new Run(null, literals.toArray(new String[0]), slots.toArray(new String[0]), style);
+        }
+
+        Component render(String[] placeholders) {
+            if (fixed != null) {
+                return fixed;
+            }
+            StringBuilder sb = new StringBuilder(64);
+            sb.append(literals[0]);
+            for (int s = 0; s < slots.length; s++) {
+                String value = lookup(placeholders, slots[s]);
+                if (value != null) {
+                    sb.append(value);
+                } else {
+                    sb.append('%').append(slots[s]).append('%');
+                }
+                sb.append(literals[s + 1]);
+            }
+            return Component.text(sb.toString(), style);
+        }
+
+        private static String lookup(String[] placeholders, String name) {
+            for (int p = 0; p + 1 < placeholders.length; p += 2) {
+                if (placeholders[p].equals(name)) {
+                    return placeholders[p + 1];
+                }
+            }
+            return null;
+        }
+
+        private static boolean isPlaceholderName(String text, int start, int end) {
+            if (start == end) {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (!(c >= 'a' && c <= 'z') && !(c >= '0' && c <= '9') && c != '_' && c != '-') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package de.celduinx.totalxprewards;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+/**
+ * {@link CommandDispatcher} that executes rewards for online Bukkit players
+ * through {@link TotalXPRewardsPlugin#executeReward}.
+ */
+public class PaperCommandDispatcher implements CommandDispatcher {
+
+    private final TotalXPRewardsPlugin plugin;
+
+    public PaperCommandDispatcher(TotalXPRewardsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean isOnline(UUID uuid) {
+        Player player = Bukkit.getPlayer(uuid);
+        return player != null && player.isOnline();
+    }
+
+    @Override
+    public void dispatch(RewardGrant grant, Reward reward, Runnable executed, Runnable dropped) {
+        Player player = Bukkit.getPlayer(grant.getUuid());
+        if (player == null) {
+            dropped.run();
+            return;
+        }
+        // Rendered on the player's thread: templates may evaluate PlaceholderAPI,
+        // which Folia only allows there
+        Runnable execute = () -> plugin.executeReward(player, reward, grant.getXp(), grant.getThreshold(),
+                executed);
+        PlatformScheduler scheduler = plugin.getPlatformScheduler();
+        if (scheduler.isOwnedByCurrentThread(player)) {
+            execute.run();
+        } else {
+            scheduler.runForEntity(player, execute, dropped);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package de.celduinx.totalxprewards;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Applies PlaceholderAPI placeholders to templates, caching each placeholder's
+ * result per player for a configurable time. Third-party placeholders such as
+ * an economy balance or a clan tag are then evaluated at most once per
+ * interval, not on every BossBar refresh.
+ * <p>
+ * The TTL of a placeholder is looked up by its identifier (e.g.
+ * {@code vault_eco_balance}), then by its expansion ({@code vault}), then the
+ * default applies. A TTL of 0 evaluates the placeholder on every render.
+ * Entries are dropped when the player quits. Reward commands bypass the
+ * cache, so they never act on a stale value.
+ * </p>
+ */
+final class PlaceholderCache {
+
+    /** Distinct placeholders kept per player before their entries are dropped. */
+    private static final int MAX_ENTRIES_PER_PLAYER = 64;
+
+    private final Logger logger;
+    private final PluginStats stats;
+    private final Map<UUID, Map<String, Entry>> players = new ConcurrentHashMap<>();
+
+    // Snapshotted on reload
+    private volatile boolean enabled;
+    private volatile long defaultTtlNanos;
+    private volatile Map<String, Long> ttlNanos = Collections.emptyMap();
+
+    PlaceholderCache(Logger logger, PluginStats stats) {
+        this.logger = logger;
+        this.stats = stats;
+    }
+
+    /**
+     * Applies new settings and drops all cached results.
+     *
+     * @param enabled whether PlaceholderAPI is installed and enabled in the config
+     * @param section the {@code settings.placeholder-cache} section, or {@code null}
+     */
+    void reload(boolean enabled, ConfigurationSection section) {
+        long defaultTtl = 1000L;
+        Map<String, Long> overrides = new HashMap<>();
+        if (section != null) {
+            defaultTtl = section.getLong("ttl-ms", defaultTtl);
+            ConfigurationSection overrideSection = section.getConfigurationSection("overrides");
+            if (overrideSection != null) {
+                for (String key : overrideSection.getKeys(false)) {
+                    overrides.put(key.toLowerCase(Locale.ROOT),
+                            TimeUnit.MILLISECONDS.toNanos(Math.max(0L, overrideSection.getLong(key))));
+                }
+            }
+        }
+        this.defaultTtlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, defaultTtl));
+        this.ttlNanos = overrides;
+        this.enabled = enabled;
+        players.clear();
+    }
+
+    /**
+     * @return whether placeholders are applied at all
+     */
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Replaces the PlaceholderAPI placeholders in a template.
+     *
+     * @param player the player the placeholders are evaluated for
+     * @param text   the template, with the plugin's own placeholders already filled in
+     * @param cached {@code false} to evaluate every placeholder now, e.g. for
+     *               reward commands
+     * @return the text with placeholders replaced
+     */
+    String apply(Player player, String text, boolean cached) {
+        if (!enabled || text.indexOf('%') < 0) {
+            return text;
+        }
+        StringBuilder sb = null;
+        int copied = 0;
+        int start = text.indexOf('%');
+        while (start >= 0) {
+            int end = text.indexOf('%', start + 1);
+            if (end < 0) {
+                break;
+            }
+            // Like PlaceholderAPI, identifiers are <expansion>_<params>
+            int underscore = text.indexOf('_', start + 1);
+            if (underscore < 0 || underscore > end - 1 || underscore == start + 1) {
+                // Lone '%', e.g. "50%": the closing one may open the next placeholder
+                start = end;
+                continue;
+            }
+            String identifier = text.substring(start + 1, end);
+            String value = cached ? resolve(player, identifier) : evaluate(player, identifier);
+            if (sb == null) {
+                sb = new StringBuilder(text.length() + 16);
+            }
+            sb.append(text, copied, start).append(value);
+            copied = end + 1;
+            start = text.indexOf('%', copied);
+        }
+        if (sb == null) {
+            return text;
+        }
+        return sb.append(text, copied, text.length()).toString();
+    }
+
+    /**
+     * Drops a player's cached results, e.g. on quit.
+     */
+    void invalidate(UUID uuid) {
+        players.remove(uuid);
+    }
+
+    /**
+     * @return the number of players with cached results
+     */
+    int size() {
+        return players.size();
+    }
+
+    private String resolve(Player player, String identifier) {
+        long ttl = ttlFor(identifier);
+        if (ttl <= 0L) {
+            return evaluate(player, identifier);
+        }
+        Map<String, Entry> entries = players.computeIfAbsent(player.getUniqueId(), uuid -> new ConcurrentHashMap<>());
+        long now = System.nanoTime();
+        Entry entry = entries.get(identifier);
+        if (entry != null && now - entry.time < ttl) {
+            stats.placeholderCacheHits.increment();
+            return entry.value;
+        }
+        stats.placeholderCacheMisses.increment();
+        String value = evaluate(player, identifier);
+        if (entries.size() >= MAX_ENTRIES_PER_PLAYER && entry == null) {
+            // Templates only hold a handful of placeholders; this guards against
+            // identifiers built from changing values
+            entries.clear();
+        }
+        entries.put(identifier, new Entry(value, now));
+        return value;
+    }
+
+    private long ttlFor(String identifier) {
+        Map<String, Long> overrides = ttlNanos;
+        if (overrides.isEmpty()) {
+            return defaultTtlNanos;
+        }
+        String key = identifier.toLowerCase(Locale.ROOT);
+        Long ttl = overrides.get(key);
+        if (ttl == null) {
+            ttl = overrides.get(key.substring(0, key.indexOf('_')));
+        }
+        return ttl != null ? ttl : defaultTtlNanos;
+    }
+
+    private String evaluate(Player player, String identifier) {
+        String placeholder = "%" + identifier + "%";
+        long start = System.nanoTime();
+        try {
+            return me.clip.placeholderapi.PlaceholderAPI.setPlaceholders(player, placeholder);
+        } catch (Throwable t) {
+            logger.warning("Error applying PlaceholderAPI: " + t.getMessage());
+            return placeholder;
+        } finally {
+            stats.placeholderApi.stop(start);
+        }
+    }
+
+    private static final class Entry {
+        private final String value;
+        private final long time;
+
+        Entry(String value, long time) {
+            this.value = value;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package de.celduinx.totalxprewards;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * {@link TaskScheduler} that also knows about entity ownership. On Paper all
+ * of this maps to the main thread; on Folia, sync tasks run on the global
+ * region and entity tasks on the region currently owning the entity.
+ */
+public interface PlatformScheduler extends TaskScheduler {
+
+    /**
+     * Runs a task on the thread owning the entity during the next tick. The task
+     * is dropped if the entity is removed (e.g. the player quits) before it runs.
+     */
+    void runForEntity(Entity entity, Runnable task);
+
+    /**
+     * Like {@link #runForEntity(Entity, Runnable)}, but runs {@code retired}
+     * instead if the entity is removed before the task runs.
+     */
+    void runForEntity(Entity entity, Runnable task, Runnable retired);
+
+    /**
+     * Runs a task on the main thread (the global region on Folia), right away
+     * if the current thread already is that thread.
+     */
+    void runGlobal(Runnable task);
+
+    /**
+     * Runs a task on the thread owning the entity after a delay.
+     *
+     * @return a handle to cancel the task
+     */
+    Task runForEntityLater(Entity entity, Runnable task, long delayTicks);
+
+    /**
+     * @return true if the current thread may read and modify the entity
+     */
+    boolean isOwnedByCurrentThread(Entity entity);
+
+    /**
+     * Handle of a scheduled task.
+     */
+    interface Task {
+        void cancel();
+    }
+
+    /**
+     * Creates the scheduler matching the running server.
+     */
+    static PlatformScheduler create(Plugin plugin) {
+        return isFolia() ? new FoliaTaskScheduler(plugin) : new BukkitTaskScheduler(plugin);
+    }
+
+    /**
+     * @return true if the server uses Folia's regionized threading
+     */
+    static boolean isFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
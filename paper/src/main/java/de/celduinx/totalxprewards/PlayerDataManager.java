@@ -0,0 +1,145 @@
+package de.celduinx.totalxprewards;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads players into the {@link PlayerStateStore} when they join and saves
+ * and removes them when they quit.
+ */
+public class PlayerDataManager implements Listener {
+
+    private final TotalXPRewardsPlugin plugin;
+    private final PlayerStateStore dataMap;
+    /** Players who quit and whose save has not run yet. */
+    private final Map<UUID, PlayerData> saving = new ConcurrentHashMap<>();
+
+    public PlayerDataManager(TotalXPRewardsPlugin plugin, PlayerStateStore store) {
+        this.plugin = plugin;
+        this.dataMap = store;
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+
+        // Load data for any players already online (reloads), once the database is open
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            plugin.runWhenReady(() -> load(p.getUniqueId(), p.getName(), true));
+        }
+    }
+
+    @EventHandler
+    public void onAsyncLogin(AsyncPlayerPreLoginEvent event) {
+        // Pre-load data async if possible
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            // Logins during startup wait for the database instead of loading 0 XP
+            long wait = Math.max(0L, plugin.getConfig().getLong("settings.startup-login-wait-seconds", 10L));
+            if (!plugin.awaitReady(wait, TimeUnit.SECONDS)) {
+                event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, Lang.render("starting"));
+                return;
+            }
+            load(event.getUniqueId(), event.getName(), false);
+        }
+    }
+
+    @EventHandler
+    public void onJoin(PlayerJoinEvent event) {
+        // Ensure data is loaded (if async login failed or wasn't used)
+        if (!dataMap.contains(event.getPlayer().getUniqueId())) {
+            // Fallback async load, held back until the database is open
+            UUID uuid = event.getPlayer().getUniqueId();
+            String name = event.getPlayer().getName();
+            plugin.runWhenReady(() -> load(uuid, name, true));
+        }
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        saveAndRemove(event.getPlayer().getUniqueId());
+    }
+
+    private void load(UUID uuid, String name, boolean async) {
+        plugin.getUsernameIndex().put(uuid, name);
+        if (dataMap.contains(uuid))
+            return;
+
+        Runnable loadTask = () -> {
+            Long stored = plugin.getDatabase().findXp(uuid);
+            long xp = stored != null ? stored : 0L;
+            // Calculate Rank; a player without a row is written on the first save
+            PlayerData data = new PlayerData(uuid, name, xp, plugin.getRankName(xp), stored != null);
+
+            if (dataMap.putIfAbsent(data) == data && stored == null) {
+                // First join: the player has no row yet, count them as unranked
+                plugin.getRankDistribution().addPlayer(xp);
+            }
+        };
+
+        if (async) {
+            plugin.getIoExecutor().execute(loadTask);
+        } else {
+            loadTask.run();
+        }
+    }
+
+    private void saveAndRemove(UUID uuid) {
+        PlayerData data = dataMap.remove(uuid);
+        if (data != null) {
+            // Save Async (skipped if nothing changed since the last save)
+            saving.put(uuid, data);
+            plugin.getIoExecutor().execute(() -> {
+                try {
+                    plugin.getDatabase().savePlayer(data);
+                } finally {
+                    saving.remove(uuid, data);
+                }
+            });
+        }
+    }
+
+    /**
+     * Saves all cached players that changed since their last save, plus those
+     * who quit and whose save is still queued, in one transaction. Blocks;
+     * used on shutdown and before the XP journal is truncated.
+     *
+     * @return the number of players written, or -1 on error
+     */
+    public int saveAll() {
+        List<PlayerData> players = new ArrayList<>(dataMap.values());
+        players.addAll(saving.values());
+        return plugin.getDatabase().savePlayers(players);
+    }
+
+    public PlayerData getData(UUID uuid) {
+        return dataMap.get(uuid);
+    }
+
+    public PlayerData getData(Player player) {
+        return getData(player.getUniqueId());
+    }
+
+    /**
+     * @return a live view of all cached (online) players' data
+     */
+    public Collection<PlayerData> getCachedPlayers() {
+        return dataMap.values();
+    }
+
+    /**
+     * @return a copy of the UUIDs of all cached (online) players
+     */
+    public Set<UUID> getCachedUuids() {
+        return dataMap.uuids();
+    }
+}
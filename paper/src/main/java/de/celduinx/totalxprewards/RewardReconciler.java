@@ -0,0 +1,172 @@
+package de.celduinx.totalxprewards;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Background job that walks the whole {@code player_xp} table and grants every
+ * reward a player has already passed but never received, e.g. after a new
+ * threshold was added below existing totals or after {@code /txp set}.
+ *
+ * <p>
+ * The table is read in batches using the UUID primary key as cursor, and each
+ * batch computes its missing {@code player_rewards} rows in a single join.
+ * The missing rows are committed to the reward outbox in one transaction per
+ * batch; grants for online players are handed to the outbox dispatcher right
+ * away, grants for offline players are delivered at their next join. A
+ * configurable delay between batches keeps the job from saturating the
+ * database on a live server.
+ * </p>
+ */
+public class RewardReconciler {
+
+    private final TotalXPRewardsPlugin plugin;
+
+    private volatile boolean running;
+    private volatile boolean cancelled;
+    private volatile long total;
+    private volatile long processed;
+    private volatile long found;
+    private volatile int batches;
+    private volatile long startedAt;
+
+    private volatile CommandSender initiator;
+
+    public RewardReconciler(TotalXPRewardsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * @return {@code true} while a reconciliation job is running
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts a new reconciliation job. Synchronized since Folia runs commands of
+     * different regions (and the console) concurrently.
+     *
+     * @param sender the sender to notify on completion
+     * @return {@code false} if a job is already running
+     */
+    public synchronized boolean start(CommandSender sender) {
+        if (running) {
+            return false;
+        }
+        running = true;
+        cancelled = false;
+        total = 0;
+        processed = 0;
+        found = 0;
+        batches = 0;
+        startedAt = System.currentTimeMillis();
+        initiator = sender;
+
+        int batchSize = Math.max(1, plugin.getConfig().getInt("reconcile.batch-size", 500));
+        long batchDelay = Math.max(1L, plugin.getConfig().getLong("reconcile.batch-delay-ticks", 2L));
+        int progressInterval = Math.max(1, plugin.getConfig().getInt("reconcile.progress-interval", 20));
+
+        List<Long> thresholds = new ArrayList<>(plugin.getRewards().keySet());
+
+        // Snapshot the cached players so the scan sees in-memory gains and /txp set
+        List<PlayerData> online = new ArrayList<>(plugin.getPlayerDataManager().getCachedPlayers());
+
+        plugin.getIoExecutor().execute(() -> {
+            XPDatabase db = plugin.getDatabase();
+            for (PlayerData data : online) {
+                db.savePlayer(data);
+            }
+            db.setReconcileThresholds(thresholds);
+            total = db.countPlayers();
+            plugin.getLogger().info("Reward reconciliation started for " + total + " players.");
+            runBatch("", batchSize, batchDelay, progressInterval);
+        });
+        return true;
+    }
+
+    /**
+     * Requests the running job to stop after the current batch. Grants already
+     * committed are still delivered.
+     */
+    public void stop() {
+        cancelled = true;
+    }
+
+    /**
+     * Sends the current progress to a command sender.
+     */
+    public void sendStatus(CommandSender sender) {
+        if (!running) {
+            Lang.send(sender, "reconcile-not-running");
+            return;
+        }
+        long percent = total > 0 ? Math.min(100L, processed * 100L / total) : 0L;
+        Lang.send(sender, "reconcile-status",
+                "processed", String.valueOf(processed),
+                "total", String.valueOf(total),
+                "percent", String.valueOf(percent),
+                "found", String.valueOf(found));
+    }
+
+    private void runBatch(String after, int batchSize, long batchDelay, int progressInterval) {
+        if (cancelled) {
+            finish(false);
+            return;
+        }
+
+        XPDatabase.RewardScan scan = plugin.getDatabase().scanMissingRewards(after, batchSize);
+        if (scan == null) {
+            plugin.getLogger().warning("Reward reconciliation aborted due to a database error.");
+            finish(false);
+            return;
+        }
+
+        if (!scan.getMissing().isEmpty()) {
+            List<RewardGrant> claimed = plugin.getRewardOutbox().claimMissing(scan.getMissing(),
+                    plugin.getPlayerDataManager().getCachedUuids());
+            if (claimed == null) {
+                plugin.getLogger().warning("Reward reconciliation aborted due to a database error.");
+                finish(false);
+                return;
+            }
+            found += claimed.size();
+            plugin.getStats().rewardsGranted.add(claimed.size());
+        }
+        processed += scan.getRows();
+        batches++;
+
+        if (batches % progressInterval == 0) {
+            plugin.getLogger().info("Reward reconciliation: " + processed + "/" + total + " players, "
+                    + found + " missing rewards.");
+        }
+
+        if (scan.getLastUuid() == null || scan.getRows() < batchSize) {
+            finish(true);
+            return;
+        }
+
+        String next = scan.getLastUuid();
+        plugin.getPlatformScheduler().runAsyncLater(() -> plugin.getIoExecutor().execute(
+                () -> runBatch(next, batchSize, batchDelay, progressInterval)), batchDelay);
+    }
+
+    private void finish(boolean completed) {
+        long seconds = (System.currentTimeMillis() - startedAt) / 1000L;
+        plugin.getLogger().info("Reward reconciliation " + (completed ? "finished" : "stopped") + " after "
+                + seconds + "s: " + processed + "/" + total + " players, " + found + " missing rewards.");
+
+        plugin.getPlatformScheduler().runSync(() -> {
+            running = false;
+            if (initiator != null) {
+                String key = completed ? "reconcile-finished" : "reconcile-stopped";
+                Lang.send(initiator, key,
+                        "processed", String.valueOf(processed),
+                        "found", String.valueOf(found));
+                initiator = null;
+            }
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package de.celduinx.totalxprewards;
+
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
+import org.bukkit.command.CommandSender;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Completes player names for {@code /totalxp get|set|reset} off the main
+ * thread from the {@link UsernameIndex}, so every tracked player can be
+ * suggested without the server building the suggestions on the tick. Anything
+ * else falls through to {@link CommandTotalXP#onTabComplete}.
+ */
+public class TabCompleteListener implements Listener {
+
+    private final CommandTotalXP command;
+    /** Prefix of the namespaced label, e.g. "totalxprewards:" */
+    private final String namespace;
+
+    public TabCompleteListener(TotalXPRewardsPlugin plugin, CommandTotalXP command) {
+        this.command = command;
+        this.namespace = plugin.getName() + ":";
+    }
+
+    @EventHandler(ignoreCancelled = true)
+    public void onAsyncTabComplete(AsyncTabCompleteEvent event) {
+        if (event.isHandled() || !event.isCommand()) {
+            return;
+        }
+        String buffer = event.getBuffer();
+        int start = buffer.startsWith("/") ? 1 : 0;
+        int labelEnd = buffer.indexOf(' ', start);
+        if (labelEnd < 0 || !isOwnLabel(buffer, start, labelEnd)) {
+            return;
+        }
+        // Exactly "<sub> <partial name>" after the label
+        int subEnd = buffer.indexOf(' ', labelEnd + 1);
+        if (subEnd < 0 || buffer.indexOf(' ', subEnd + 1) >= 0) {
+            return;
+        }
+        String permission = targetPermission(buffer, labelEnd + 1, subEnd);
+        if (permission == null) {
+            return;
+        }
+        CommandSender sender = event.getSender();
+        List<String> completions = new ArrayList<>();
+        if (sender.hasPermission(permission)) {
+            command.completeTargets(buffer.substring(subEnd + 1), completions);
+        }
+        event.setCompletions(completions);
+        event.setHandled(true);
+    }
+
+    private boolean isOwnLabel(String buffer, int start, int end) {
+        if (buffer.regionMatches(true, start, namespace, 0, namespace.length())) {
+            start += namespace.length();
+        }
+        return matches(buffer, start, end, "totalxp") || matches(buffer, start, end, "txp");
+    }
+
+    /**
+     * @return the permission needed for the subcommand, or {@code null} if it
+     *         takes no player argument
+     */
+    private static String targetPermission(String buffer, int start, int end) {
+        if (matches(buffer, start, end, "get")) {
+            return "totalxp.view";
+        }
+        if (matches(buffer, start, end, "set") || matches(buffer, start, end, "reset")) {
+            return "totalxp.admin";
+        }
+        return null;
+    }
+
+    private static boolean matches(String buffer, int start, int end, String word) {
+        return end - start == word.length() && buffer.regionMatches(true, start, word, 0, word.length());
+    }
+}
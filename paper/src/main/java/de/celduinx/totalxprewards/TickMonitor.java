@@ -0,0 +1,69 @@
+package de.celduinx.totalxprewards;
+
+import org.bukkit.Bukkit;
+
+/**
+ * Feeds the {@link WorkGovernor} once a second and applies its decisions.
+ * Runs every tick on the main thread (the global region on Folia).
+ * <p>
+ * The tick time comes from Paper's {@code getAverageTickTime()}. Where that is
+ * not available (Folia has no single tick), the time between two runs of this
+ * task is averaged instead, which only shows when the server falls behind.
+ * </p>
+ */
+final class TickMonitor implements Runnable {
+
+    private static final int SAMPLE_PERIOD = 20;
+    /** Weight of a new tick interval in the moving average, ~1 s memory. */
+    private static final double ALPHA = 0.05D;
+
+    private final TotalXPRewardsPlugin plugin;
+    private final WorkGovernor governor;
+
+    private boolean tickTimeApi = true;
+    private long lastTick;
+    private double averageInterval = 50.0D;
+    private int ticks;
+
+    TickMonitor(TotalXPRewardsPlugin plugin, WorkGovernor governor) {
+        this.plugin = plugin;
+        this.governor = governor;
+    }
+
+    @Override
+    public void run() {
+        long now = System.nanoTime();
+        if (lastTick != 0L) {
+            averageInterval += ((now - lastTick) / 1e6D - averageInterval) * ALPHA;
+        }
+        lastTick = now;
+        if (++ticks < SAMPLE_PERIOD) {
+            return;
+        }
+        ticks = 0;
+
+        WorkGovernor.Level before = governor.getLevel();
+        WorkGovernor.Level level = null;
+        if (tickTimeApi) {
+            try {
+                level = governor.sample(Bukkit.getServer().getAverageTickTime());
+            } catch (UnsupportedOperationException | NoSuchMethodError e) {
+                tickTimeApi = false;
+            }
+        }
+        if (level == null) {
+            level = governor.sampleTickInterval(averageInterval);
+        }
+        if (level != before) {
+            plugin.getStats().governorLevelChanges.increment();
+            if (level == WorkGovernor.Level.BEHIND) {
+                plugin.getLogger().info("Server is behind, throttling BossBar updates and reward execution.");
+            } else if (before == WorkGovernor.Level.BEHIND) {
+                plugin.getLogger().info("Server caught up.");
+            }
+        }
+
+        RewardOutbox outbox = plugin.getRewardOutbox();
+        outbox.setDispatchBudget(governor.getDispatchBudget(outbox.getDispatchPerTick()));
+    }
+}
@@ -0,0 +1,779 @@
+package de.celduinx.totalxprewards;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Main class for the Total XP Rewards plugin.
+ *
+ * <p>
+ * This plugin tracks the total amount of XP a player ever gains (across deaths
+ * and resets) and issues rewards when configured thresholds are reached.
+ * XP is stored in a SQLite database for persistency. Administrators can
+ * configure reward thresholds and associated console commands and broadcast
+ * messages in {@code config.yml}, and can localise static messages via
+ * {@code lang.yml}.
+ * </p>
+ */
+public final class TotalXPRewardsPlugin extends JavaPlugin {
+
+    private static final int CONFIG_VERSION = 1;
+    private static TotalXPRewardsPlugin instance;
+
+    private final PluginStats stats = new PluginStats();
+    private StatsMBean statsMBean;
+    private PrometheusExporter prometheusExporter;
+    private XPDatabase database;
+    private final PlayerStateStore playerStates = new PlayerStateStore();
+    private final UsernameIndex usernameIndex = new UsernameIndex();
+    private RewardEngine rewardEngine;
+    private PlatformScheduler platformScheduler;
+    private IoExecutor ioExecutor;
+    private BossBarManager bossBarManager;
+    private PlayerDataManager playerDataManager;
+    private PlaceholderCache placeholderCache;
+    private BroadcastAggregator broadcastAggregator;
+    private final WorkGovernor workGovernor = new WorkGovernor();
+    private XpJournal journal;
+    /** Opened by {@link #finishStartup()}. */
+    private final CountDownLatch ready = new CountDownLatch(1);
+    /** Work that arrived before the plugin was ready. */
+    private final Queue<Runnable> startupQueue = new ConcurrentLinkedQueue<>();
+    private RewardReconciler rewardReconciler;
+
+    /**
+     * Gets the singleton instance of this plugin.
+     *
+     * @return the plugin instance
+     */
+    public static TotalXPRewardsPlugin getInstance() {
+        return instance;
+    }
+
+    @Override
+    public void onEnable() {
+        instance = this;
+
+        // Copy default config and language file from JAR
+        saveDefaultConfig();
+        if (!new java.io.File(getDataFolder(), "lang.yml").exists()) {
+            saveResource("lang.yml", false);
+        }
+
+        // Migrate config (e.g. v1.0.0 -> v1.0.1 -> v1.0.2)
+        migrateConfig();
+
+        // Initialise language manager
+        Lang.init(this);
+
+        // SQLite, opened by the startup stage below
+        this.database = new XPDatabase(getDataFolder(), getLogger(), stats);
+        // Crash-safe record of XP changed since the last save
+        this.journal = new XpJournal(new File(getDataFolder(), "xp.journal"),
+                getConfig().getInt("journal.capacity", 65536), getLogger(),
+                () -> ioExecutor.execute(this::flushJournal));
+
+        // Paper main thread or Folia regions
+        this.platformScheduler = PlatformScheduler.create(this);
+
+        // Dedicated virtual-thread executor for blocking database calls
+        this.ioExecutor = new IoExecutor(getConfig().getInt("settings.io-concurrency", 4), getLogger());
+
+        // Init reward engine (rank table, threshold checks, reward outbox)
+        this.rewardEngine = new RewardEngine(database, playerStates, platformScheduler, ioExecutor,
+                new PaperCommandDispatcher(this), stats);
+
+        // Init Cache Manager
+        this.playerDataManager = new PlayerDataManager(this, playerStates);
+
+        // PlaceholderAPI results, configured in reloadSettings()
+        this.placeholderCache = new PlaceholderCache(getLogger(), stats);
+
+        // Batched reward broadcasts, configured in reloadSettings()
+        this.broadcastAggregator = new BroadcastAggregator(platformScheduler);
+
+        // Load config + language; rewards are compiled by the startup stage
+        applySettings();
+
+        // Startup stage: open and migrate the database, compile the rank table
+        // and index player names without blocking server startup. Logins wait
+        // for it (see PlayerDataManager), earlier events are queued.
+        ioExecutor.execute(() -> {
+            try {
+                database.open();
+                loadRewards();
+                // After the rewards, so recovered rows get their rank
+                recoverJournal();
+                usernameIndex.load(database);
+            } finally {
+                // Errors are logged by the executor; don't keep logins waiting for nothing
+                platformScheduler.runSync(this::finishStartup);
+            }
+        });
+
+        // Throttle BossBar refreshes and reward execution while the server is loaded
+        platformScheduler.runSyncTimer(new TickMonitor(this, workGovernor), 1L, 1L);
+
+        // Reward broadcasts are sent in batches, merged into a summary during bursts
+        broadcastAggregator.start();
+
+        // Init reward reconciliation job (started via /txp reconcile)
+        this.rewardReconciler = new RewardReconciler(this);
+
+        // Initialise BossBar manager
+        this.bossBarManager = new BossBarManager(this);
+
+        // Register event listener
+        getServer().getPluginManager().registerEvents(new XPListener(this), this);
+
+        // Register commands
+        CommandTotalXP cmd = new CommandTotalXP(this);
+        PluginCommand command = getCommand("totalxp");
+        if (command != null) {
+            command.setExecutor(cmd);
+            command.setTabCompleter(cmd);
+            // Player names are completed off the main thread
+            getServer().getPluginManager().registerEvents(new TabCompleteListener(this, cmd), this);
+        } else {
+            getLogger().severe("Command 'totalxp' not found in plugin.yml!");
+        }
+
+        // Initialise bStats Metrics
+        int pluginId = 28208;
+        Metrics metrics = new Metrics(this, pluginId);
+        metrics.addCustomChart(new Metrics.AdvancedPie("rank_distribution", this::getRankDistributionChart));
+
+        // Expose hot-path stats via JMX (also available through /txp stats)
+        stats.registerGauge("cached_players", () -> playerDataManager.getCachedPlayers().size());
+        stats.registerGauge("outbox_backlog", () -> rewardEngine.getOutbox().getBacklog());
+        stats.registerGauge("outbox_dispatch_queue", () -> rewardEngine.getOutbox().getDispatchQueue());
+        stats.registerGauge("io_pending", ioExecutor::getPending);
+        stats.registerGauge("journal_entries", journal::size);
+        stats.registerGauge("governor_level", () -> workGovernor.getLevel().ordinal());
+        stats.registerGauge("governor_sample_ms", () -> Math.round(workGovernor.getLastSample()));
+        stats.registerGauge("governor_dispatch_budget", () -> rewardEngine.getOutbox().getDispatchBudget());
+        stats.registerGauge("governor_bossbar_interval", workGovernor::getBossBarInterval);
+        this.statsMBean = new StatsMBean(stats);
+        statsMBean.register(getLogger());
+
+        // Optional Prometheus scrape endpoint
+        if (getConfig().getBoolean("prometheus.enabled", false)) {
+            this.prometheusExporter = new PrometheusExporter(stats, getLogger());
+            prometheusExporter.start(getConfig().getString("prometheus.bind", "127.0.0.1"),
+                    getConfig().getInt("prometheus.port", 9465));
+        }
+
+        getLogger().info("TotalXPRewards enabled.");
+    }
+
+    @Override
+    public void onDisable() {
+        // 1. Stop intake: no more XP gains, joins or commands from here on
+        HandlerList.unregisterAll(this);
+
+        // Announce rank-ups still waiting for their window
+        if (broadcastAggregator != null) {
+            broadcastAggregator.flush();
+        }
+
+        // 2. Let queued saves (e.g. of players kicked on shutdown) and outbox
+        // commits finish, up to the deadline
+        long timeout = Math.max(1L, getConfig().getLong("settings.shutdown-timeout-seconds", 10L));
+        if (ioExecutor != null && !ioExecutor.shutdown(timeout, TimeUnit.SECONDS)) {
+            getLogger().warning(ioExecutor.getPending() + " database tasks were still running after " + timeout
+                    + " seconds.");
+        }
+
+        if (database != null) {
+            // 3. Persist grants queued or executed since the last outbox commit
+            if (rewardEngine != null) {
+                rewardEngine.getOutbox().commit();
+            }
+            // 4. Write all changed online players (e.g. on /reload) in one transaction
+            if (playerDataManager != null) {
+                int mark = journal.mark();
+                int saved = playerDataManager.saveAll();
+                if (saved > 0) {
+                    getLogger().info("Saved " + saved + " players.");
+                }
+                if (saved >= 0) {
+                    journal.truncate(mark);
+                }
+            }
+            journal.close();
+            // 5. Checkpoint the WAL and close
+            database.close();
+        }
+
+        if (statsMBean != null) {
+            statsMBean.unregister(getLogger());
+        }
+        if (prometheusExporter != null) {
+            prometheusExporter.stop();
+        }
+    }
+
+    private void migrateConfig() {
+        File configFile = new File(getDataFolder(), "config.yml");
+        if (!configFile.exists()) {
+            return;
+        }
+
+        // Load directly from disk to ensure we have the latest
+        org.bukkit.configuration.file.YamlConfiguration config = org.bukkit.configuration.file.YamlConfiguration
+                .loadConfiguration(configFile);
+
+        int currentVersion = config.getInt("config-version", 0);
+        boolean changed = false;
+
+        if (currentVersion < CONFIG_VERSION) {
+            getLogger().info("Migrating configuration from v" + currentVersion + " to v" + CONFIG_VERSION + "...");
+
+            // Migration Steps
+            if (currentVersion < 1) {
+                // Pre-versioning migration (add bossbar, update rewards)
+
+                // BossBar Section check
+                if (!config.isConfigurationSection("bossbar")) {
+                    config.set("bossbar.enabled", true);
+                    config.set("bossbar.dynamic-mode", false);
+                    config.set("bossbar.timeout", 10);
+                    config.set("bossbar.title", "&bNext Rank: &e%next_rank% &7(&a%xp%&7/&c%required_xp%&7)");
+                    config.set("bossbar.color", "BLUE");
+                    config.set("bossbar.style", "SOLID");
+                    changed = true;
+                } else {
+                    if (!config.contains("bossbar.dynamic-mode")) {
+                        config.set("bossbar.dynamic-mode", false);
+                        changed = true;
+                    }
+                    if (!config.contains("bossbar.timeout")) {
+                        config.set("bossbar.timeout", 10);
+                        changed = true;
+                    }
+                }
+
+                // Reward Names check
+                ConfigurationSection rewardsSection = config.getConfigurationSection("rewards");
+                if (rewardsSection != null) {
+                    for (String key : rewardsSection.getKeys(false)) {
+                        if (!rewardsSection.contains(key + ".name")) {
+                            config.set("rewards." + key + ".name", "Rank " + key);
+                            changed = true;
+                        }
+                    }
+                }
+            }
+
+            // Mark validation as done by updating version
+            config.set("config-version", CONFIG_VERSION);
+            changed = true;
+        }
+
+        if (changed) {
+            try {
+                config.save(configFile);
+                getLogger().info("Config migration complete. Saved to disk.");
+                // Reload the plugin config instance to pick up changes
+                reloadConfig();
+            } catch (java.io.IOException e) {
+                getLogger().severe("Could not save migrated config: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reloads plugin settings, including config and language files.
+     */
+    public void reloadSettings() {
+        reloadConfig();
+        applySettings();
+        loadRewards();
+        rewardEngine.refreshRankDistribution();
+        if (bossBarManager != null) {
+            bossBarManager.reload();
+        }
+    }
+
+    /**
+     * Runs on the main thread once the startup stage is done: counts ranks,
+     * starts the reward outbox and releases what waited for the database.
+     */
+    private void finishStartup() {
+        rewardEngine.refreshRankDistribution();
+
+        // Start the reward outbox and replay grants left over from the last run
+        RewardOutbox rewardOutbox = rewardEngine.getOutbox();
+        rewardOutbox.start(Math.max(1L, getConfig().getLong("outbox.commit-interval-ticks", 2L)),
+                Math.max(1, getConfig().getInt("outbox.dispatch-per-tick", 20)));
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            rewardOutbox.replayPending(player.getUniqueId());
+        }
+
+        // Periodic batched save, after which the XP journal is cleared
+        long flushInterval = Math.max(1L, getConfig().getLong("journal.flush-interval-seconds", 60L)) * 20L;
+        platformScheduler.runAsyncTimer(() -> ioExecutor.execute(this::flushJournal), flushInterval, flushInterval);
+
+        ready.countDown();
+        Runnable task;
+        while ((task = startupQueue.poll()) != null) {
+            task.run();
+        }
+        getLogger().info("TotalXPRewards ready.");
+    }
+
+    /**
+     * Writes XP journaled by the last run (lost by a crash before it was
+     * saved) to the database, then starts a new journal. Part of the startup
+     * stage.
+     */
+    private void recoverJournal() {
+        if (!getConfig().getBoolean("journal.enabled", true)) {
+            return;
+        }
+        Map<UUID, Long> recovered = journal.recover();
+        if (!recovered.isEmpty()) {
+            int raised = database.raiseXp(recovered, rewardEngine.getRankTable());
+            if (raised < 0) {
+                // Keep the file for the next start rather than overwriting it
+                getLogger().severe("Could not replay the XP journal, journaling stays off until restart.");
+                return;
+            }
+            if (raised > 0) {
+                getLogger().warning("Recovered XP of " + raised + " players from the journal. "
+                        + "Run /txp reconcile to grant rewards they reached.");
+            }
+        }
+        journal.open();
+    }
+
+    /**
+     * Saves all changed players in one batch and drops the journal entries
+     * that batch covers. Runs on the I/O executor.
+     */
+    private void flushJournal() {
+        int mark = journal.mark();
+        if (mark == 0) {
+            return;
+        }
+        if (playerDataManager.saveAll() >= 0) {
+            journal.truncate(mark);
+        }
+    }
+
+    /**
+     * @return {@code true} once the database is open and the rank table loaded
+     */
+    public boolean isReady() {
+        return ready.getCount() == 0L;
+    }
+
+    /**
+     * Blocks until the plugin is ready, e.g. during an async login.
+     *
+     * @return {@code false} if it was not ready within the timeout
+     */
+    public boolean awaitReady(long timeout, TimeUnit unit) {
+        try {
+            return ready.await(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Runs a task now if the plugin is ready, or queues it until startup has
+     * finished. Queued tasks run on the main thread (the global region on
+     * Folia), so tasks touching a player must reschedule themselves.
+     */
+    void runWhenReady(Runnable task) {
+        if (isReady()) {
+            task.run();
+            return;
+        }
+        startupQueue.add(task);
+        // Became ready in between: the queue may already have been drained
+        if (isReady() && startupQueue.remove(task)) {
+            task.run();
+        }
+    }
+
+    /**
+     * Applies the settings that need no database: flight events, language,
+     * PlaceholderAPI, broadcast batching and the work governor.
+     */
+    private void applySettings() {
+        FlightEvents.setEnabled(getConfig().getBoolean("settings.jfr-events", false));
+        Lang.reload(this);
+        // Checked once here instead of on every render
+        boolean configUsePapi = getConfig().getBoolean("settings.use-placeholderapi", true);
+        boolean hasPapi = getServer().getPluginManager().isPluginEnabled("PlaceholderAPI");
+        placeholderCache.reload(configUsePapi && hasPapi,
+                getConfig().getConfigurationSection("settings.placeholder-cache"));
+        broadcastAggregator.reload(getConfig().getLong("broadcast.window-ticks", 10L),
+                getConfig().getInt("broadcast.summary-threshold", 5));
+        workGovernor.configure(getConfig().getBoolean("governor.enabled", true),
+                getConfig().getDouble("governor.busy-mspt", 40.0D), getConfig().getDouble("governor.behind-mspt", 50.0D));
+    }
+
+    /**
+     * Parses reward thresholds and commands from config.yml.
+     */
+    private void loadRewards() {
+        List<Reward> rewards = new ArrayList<>();
+
+        ConfigurationSection section = getConfig().getConfigurationSection("rewards");
+        if (section == null) {
+            getLogger().warning("No rewards section found in config.yml");
+            rewardEngine.setRankTable(RankTable.EMPTY);
+            return;
+        }
+
+        for (String key : section.getKeys(false)) {
+            try {
+                long threshold = Long.parseLong(key);
+
+                // Load commands list
+                List<String> commands = section.getStringList(key + ".commands");
+                String broadcast = section.getString(key + ".broadcast", "");
+                String name = section.getString(key + ".name", "Rank " + threshold);
+
+                // Backwards compatibility: "command: <string>"
+                if (commands.isEmpty()) {
+                    String single = section.getString(key + ".command");
+                    if (single != null && !single.isEmpty()) {
+                        commands = java.util.Collections.singletonList(single);
+                    }
+                }
+
+                // Skip invalid entries
+                if ((commands == null || commands.isEmpty()) &&
+                        (broadcast == null || broadcast.isEmpty())) {
+                    getLogger().warning("Reward " + key + " has no commands and no broadcast, skipping.");
+                    continue;
+                }
+
+                rewards.add(new Reward(threshold, commands, broadcast, name));
+
+            } catch (NumberFormatException e) {
+                getLogger().warning("Invalid reward key (not numeric): " + key);
+            }
+        }
+
+        RankTable rankTable = new RankTable(rewards);
+        rewardEngine.setRankTable(rankTable);
+        getLogger().info("Loaded " + rankTable.size() + " rewards from config.");
+    }
+
+    public XPDatabase getDatabase() {
+        return database;
+    }
+
+    /**
+     * @return all rewards by threshold, in ascending order
+     */
+    public Map<Long, Reward> getRewards() {
+        return rewardEngine.getRankTable().getRewards();
+    }
+
+    public RankTable getRankTable() {
+        return rewardEngine.getRankTable();
+    }
+
+    public RewardEngine getRewardEngine() {
+        return rewardEngine;
+    }
+
+    /**
+     * @return the name lookup for every tracked player
+     */
+    public UsernameIndex getUsernameIndex() {
+        return usernameIndex;
+    }
+
+    /**
+     * @return the executor for blocking database calls
+     */
+    public IoExecutor getIoExecutor() {
+        return ioExecutor;
+    }
+
+    /**
+     * @return the scheduler for the running platform (Paper or Folia)
+     */
+    public PlatformScheduler getPlatformScheduler() {
+        return platformScheduler;
+    }
+
+    /**
+     * Returns the number of players per rank. The counts are loaded once on
+     * startup/reload and updated on every rank change, so this is cheap to
+     * call.
+     *
+     * @return the current rank distribution
+     */
+    public RankDistribution getRankDistribution() {
+        return rewardEngine.getRankDistribution();
+    }
+
+    /**
+     * Player counts by plain rank name for the bStats rank chart.
+     */
+    private Map<String, Integer> getRankDistributionChart() {
+        RankDistribution distribution = getRankDistribution();
+        RankTable table = distribution.getRankTable();
+        Map<String, Integer> chart = new LinkedHashMap<>();
+        for (Map.Entry<Long, Long> entry : distribution.getCounts().entrySet()) {
+            Reward reward = table.getReward(entry.getKey());
+            String name = reward != null ? reward.getName() : RankTable.NO_RANK;
+            // Rank names may contain legacy or MiniMessage formatting
+            name = LegacyConverter.toMiniMessage(name);
+            name = PlainTextComponentSerializer.plainText().serialize(MiniMessage.miniMessage().deserialize(name));
+            chart.merge(name, (int) Math.min(Integer.MAX_VALUE, entry.getValue()), Integer::sum);
+        }
+        return chart;
+    }
+
+    public BossBarManager getBossBarManager() {
+        return bossBarManager;
+    }
+
+    public PlayerDataManager getPlayerDataManager() {
+        return playerDataManager;
+    }
+
+    public RewardReconciler getRewardReconciler() {
+        return rewardReconciler;
+    }
+
+    public RewardOutbox getRewardOutbox() {
+        return rewardEngine.getOutbox();
+    }
+
+    public PluginStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Handles an XP gain event.
+     */
+    public void handleXpGain(Player player, int amount) {
+        if (amount <= 0) {
+            return; // ignore zero/negative XP
+        }
+        if (!isReady()) {
+            // Back on the player's thread once the database is open
+            runWhenReady(() -> platformScheduler.runForEntity(player, () -> handleXpGain(player, amount)));
+            return;
+        }
+
+        long start = System.nanoTime();
+        FlightEvents.XpGain event = FlightEvents.beginXpGain();
+        long newTotal = -1;
+        try {
+            newTotal = applyXpGain(player, amount);
+        } finally {
+            stats.xpGain.stop(start);
+            FlightEvents.commitXpGain(event, player.getName(), amount, newTotal);
+        }
+    }
+
+    /**
+     * @return the player's new total XP, or -1 if the player is not cached
+     */
+    private long applyXpGain(Player player, int amount) {
+        // Updates the cache and queues crossed rewards; saving happens on quit
+        long newTotal = rewardEngine.addXp(player.getUniqueId(), amount);
+        if (newTotal < 0)
+            return -1; // Should not happen if online
+        journal.append(player.getUniqueId(), newTotal);
+
+        // Update BossBar
+        if (bossBarManager != null) {
+            bossBarManager.requestUpdate(player, newTotal);
+        }
+        return newTotal;
+    }
+
+    /**
+     * Executes all commands and broadcast for a reward. Called on the thread
+     * owning the player, where the templates are rendered; the console
+     * commands then run on the main thread (the global region on Folia).
+     *
+     * @param executed called once the commands have run
+     */
+    void executeReward(Player player, Reward reward, long xp, long threshold, Runnable executed) {
+        long start = System.nanoTime();
+        FlightEvents.RewardDispatch event = FlightEvents.beginRewardDispatch();
+        try {
+            List<String> commands = new ArrayList<>(reward.getCommands().size());
+            for (String command : reward.getCommands()) {
+                if (command == null || command.isEmpty()) {
+                    continue;
+                }
+
+                String cmd = formatCommand(player, command, xp, threshold);
+
+                if (cmd.startsWith("/")) {
+                    cmd = cmd.substring(1);
+                }
+                commands.add(cmd);
+            }
+
+            // Run broadcast
+            String broadcast = reward.getBroadcast();
+            if (broadcast != null && !broadcast.isEmpty()) {
+                long formatStart = System.nanoTime();
+                Component msg = formatToComponent(player, broadcast, xp, threshold);
+                stats.format.stop(formatStart);
+                // Sent as a component with the next batch of broadcasts
+                broadcastAggregator.submit(player.getName(), msg);
+            }
+
+            // Run commands
+            platformScheduler.runGlobal(() -> {
+                for (String cmd : commands) {
+                    Bukkit.dispatchCommand(Bukkit.getConsoleSender(), cmd);
+                }
+                stats.rewardsExecuted.increment();
+                executed.run();
+            });
+        } finally {
+            stats.executeReward.stop(start);
+            FlightEvents.commitRewardDispatch(event, player.getName(), threshold, reward.getCommands().size());
+        }
+    }
+
+    /**
+     * Applies placeholders + color codes.
+     */
+    public String format(Player player, String text, long xp, long threshold, boolean colour) {
+        long start = System.nanoTime();
+        try {
+            Component comp = formatToComponent(player, text, xp, threshold);
+            // Serialize to Legacy String with Hex support
+            return LegacyComponentSerializer.legacySection().serialize(comp);
+        } finally {
+            stats.format.stop(start);
+        }
+    }
+
+    /**
+     * Like {@link #format}, but evaluates PlaceholderAPI placeholders without
+     * the cache, so reward commands never act on stale values.
+     */
+    private String formatCommand(Player player, String command, long xp, long threshold) {
+        long start = System.nanoTime();
+        FlightEvents.TemplateRender event = FlightEvents.beginTemplateRender();
+        try {
+            Component comp = renderTemplate(player, command, xp, threshold, false);
+            return LegacyComponentSerializer.legacySection().serialize(comp);
+        } finally {
+            FlightEvents.commitTemplateRender(event, player.getName(), command.length());
+            stats.format.stop(start);
+        }
+    }
+
+    public String getRankName(long xp) {
+        return rewardEngine.getRankName(xp);
+    }
+
+    public Component formatToComponent(Player player, String text, long xp, long threshold) {
+        if (text == null || text.isEmpty()) {
+            return Component.empty();
+        }
+
+        FlightEvents.TemplateRender event = FlightEvents.beginTemplateRender();
+        try {
+            return renderTemplate(player, text, xp, threshold, true);
+        } finally {
+            FlightEvents.commitTemplateRender(event, player.getName(), text.length());
+        }
+    }
+
+    private Component renderTemplate(Player player, String text, long xp, long threshold,
+            boolean cachePlaceholders) {
+        // 1. Calculate %current_rank% if needed
+        if (text.contains("%current_rank%")) {
+            text = text.replace("%current_rank%", getRankName(xp));
+        }
+
+        // 2. Calculate %next_rank% and %required_xp% if needed
+        if (text.contains("%next_rank%") || text.contains("%required_xp%")) {
+            String nextRankName = Lang.raw(player, "max-rank");
+            long nextThresholdVal = -1;
+
+            Reward next = rewardEngine.getRankTable().getNext(xp);
+            if (next != null) {
+                nextRankName = next.getName();
+                nextThresholdVal = next.getThreshold();
+            }
+
+            text = text.replace("%next_rank%", nextRankName);
+
+            if (nextThresholdVal != -1) {
+                text = text.replace("%required_xp%", String.valueOf(nextThresholdVal));
+            } else {
+                text = text.replace("%required_xp%", "0");
+            }
+        }
+
+        // 3. Standard replacements
+        text = text.replace("%player%", player.getName())
+                .replace("%xp%", String.valueOf(xp))
+                .replace("%threshold%", String.valueOf(threshold));
+
+        // 4. PlaceholderAPI (display results cached per player, see settings.placeholder-cache)
+        text = placeholderCache.apply(player, text, cachePlaceholders);
+
+        // 5. Parse
+        // Hybrid Support:
+        // Legacy '&' and '§' codes (the latter often from PlaceholderAPI) are
+        // converted to MiniMessage tags FIRST.
+        // This allows mixed usage (e.g. "&bTitle: <gradient>...") to work correctly.
+        text = LegacyConverter.toMiniMessage(text);
+
+        return MiniMessage.miniMessage().deserialize(text);
+    }
+
+    /**
+     * Checks PlaceholderAPI availability, as of the last reload.
+     */
+    public boolean isPlaceholderAPIEnabled() {
+        return placeholderCache.isEnabled();
+    }
+
+    public XpJournal getJournal() {
+        return journal;
+    }
+
+    public WorkGovernor getWorkGovernor() {
+        return workGovernor;
+    }
+
+    PlaceholderCache getPlaceholderCache() {
+        return placeholderCache;
+    }
+}
@@ -0,0 +1,183 @@
+package de.celduinx.totalxprewards;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerExpChangeEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Listens for player XP changes and forwards positive gains to the plugin for
+ * processing. Negative or zero XP changes are ignored, as configured.
+ */
+public class XPListener implements Listener {
+
+    private final TotalXPRewardsPlugin plugin;
+    /** Players with an /xp check scheduled for the next tick. */
+    private final Set<UUID> pendingChecks = ConcurrentHashMap.newKeySet();
+
+    public XPListener(TotalXPRewardsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(ignoreCancelled = true)
+    public void onPlayerExpChange(PlayerExpChangeEvent event) {
+        int amount = event.getAmount();
+        if (amount <= 0) {
+            return;
+        }
+        plugin.handleXpGain(event.getPlayer(), amount);
+    }
+
+    /**
+     * Intercepts player commands to check for /xp or /experience usage.
+     * Calculates XP difference before and after command execution to track gains.
+     */
+    @EventHandler(ignoreCancelled = true)
+    public void onPlayerCommand(org.bukkit.event.player.PlayerCommandPreprocessEvent event) {
+        String target = parseXpTarget(event.getMessage(), 1);
+        if (target != null) {
+            handleXpCommand(event.getPlayer(), target);
+        }
+    }
+
+    /**
+     * Intercepts console commands to check for xp or experience usage.
+     */
+    @EventHandler(ignoreCancelled = true)
+    public void onServerCommand(org.bukkit.event.server.ServerCommandEvent event) {
+        String command = event.getCommand();
+        String target = parseXpTarget(command, command.startsWith("/") ? 1 : 0);
+        if (target != null) {
+            handleXpCommand(event.getSender(), target);
+        }
+    }
+
+    @EventHandler
+    public void onPlayerJoin(org.bukkit.event.player.PlayerJoinEvent event) {
+        org.bukkit.entity.Player player = event.getPlayer();
+        java.util.UUID uuid = player.getUniqueId();
+        PlatformScheduler scheduler = plugin.getPlatformScheduler();
+        // Held back until the database is open
+        plugin.runWhenReady(() -> {
+            plugin.getIoExecutor().execute(() -> {
+                long xp = plugin.getDatabase().getXp(uuid);
+                // Dropped by the scheduler if the player quit in the meantime
+                scheduler.runForEntity(player, () -> {
+                    if (plugin.getBossBarManager() != null) {
+                        plugin.getBossBarManager().update(player, xp);
+                    }
+                });
+            });
+            // Rewards committed but not executed while the player was offline
+            plugin.getRewardOutbox().replayPending(uuid);
+        });
+    }
+
+    @EventHandler
+    public void onPlayerQuit(org.bukkit.event.player.PlayerQuitEvent event) {
+        plugin.getPlaceholderCache().invalidate(event.getPlayer().getUniqueId());
+        // The check is dropped with the player's tasks
+        pendingChecks.remove(event.getPlayer().getUniqueId());
+        if (plugin.getBossBarManager() != null) {
+            plugin.getBossBarManager().remove(event.getPlayer());
+        }
+    }
+
+    /**
+     * Finds the target argument of an XP-changing command, i.e.
+     * {@code xp|experience add|set <targets> ...}, optionally namespaced as
+     * {@code minecraft:xp}. {@code query} and other commands are ignored
+     * without splitting the command line.
+     *
+     * @param command the command line
+     * @param start   the index the label starts at, after any leading '/'
+     * @return the target argument, or {@code null} if the command changes no XP
+     */
+    static String parseXpTarget(String command, int start) {
+        if (command.regionMatches(true, start, "minecraft:", 0, 10)) {
+            start += 10;
+        }
+        int labelEnd;
+        if (command.regionMatches(true, start, "xp ", 0, 3)) {
+            labelEnd = start + 2;
+        } else if (command.regionMatches(true, start, "experience ", 0, 11)) {
+            labelEnd = start + 10;
+        } else {
+            return null;
+        }
+        String[] args = command.substring(labelEnd + 1).trim().split(" +");
+        if (args.length < 2 || !(args[0].equalsIgnoreCase("add") || args[0].equalsIgnoreCase("set"))) {
+            return null;
+        }
+        return args[1];
+    }
+
+    private void handleXpCommand(CommandSender sender, String target) {
+        PlatformScheduler scheduler = plugin.getPlatformScheduler();
+        // Snapshot the current total XP of the targeted players this thread may
+        // read (all of them on Paper, the players of the command's region on Folia)
+        for (Player p : resolveTargets(sender, target)) {
+            if (!scheduler.isOwnedByCurrentThread(p)) {
+                continue;
+            }
+            UUID uuid = p.getUniqueId();
+            if (!pendingChecks.add(uuid)) {
+                // Another /xp this tick: the earlier snapshot covers both
+                continue;
+            }
+            int oldTotal = p.getTotalExperience();
+
+            // Check 1 tick later, on the player's own thread
+            scheduler.runForEntityLater(p, () -> {
+                pendingChecks.remove(uuid);
+                int diff = p.getTotalExperience() - oldTotal;
+                if (diff > 0) {
+                    plugin.handleXpGain(p, diff);
+                }
+            }, 1L);
+        }
+    }
+
+    private static Collection<? extends Player> resolveTargets(CommandSender sender, String target) {
+        if (!target.startsWith("@")) {
+            Player player = Bukkit.getPlayerExact(target);
+            if (player == null && target.length() == 36) {
+                // Vanilla also accepts a player's UUID
+                try {
+                    player = Bukkit.getPlayer(UUID.fromString(target));
+                } catch (IllegalArgumentException e) {
+                    // Not a UUID: no such player
+                }
+            }
+            return player != null ? Collections.singletonList(player) : Collections.emptyList();
+        }
+        if (target.equals("@s")) {
+            return sender instanceof Player ? Collections.singletonList((Player) sender) : Collections.emptyList();
+        }
+        List<Player> players = new ArrayList<>();
+        try {
+            for (Entity entity : Bukkit.selectEntities(sender, target)) {
+                if (entity instanceof Player) {
+                    players.add((Player) entity);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Invalid selector: the command fails as well
+        } catch (UnsupportedOperationException e) {
+            // Selectors cannot be resolved here (Folia): check everyone
+            return Bukkit.getOnlinePlayers();
+        }
+        return players;
+    }
+}
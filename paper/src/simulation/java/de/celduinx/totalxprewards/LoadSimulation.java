@@ -0,0 +1,299 @@
+package de.celduinx.totalxprewards;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import org.bukkit.event.player.PlayerExpChangeEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Headless load simulation: runs the plugin on a MockBukkit server with a
+ * temporary database and drives it with synthetic joins, quits and XP streams
+ * as described by a {@link SimulationScenario}.
+ *
+ * <p>
+ * Joins and quits go through the real {@code PlayerJoinEvent} and
+ * {@code PlayerQuitEvent} handlers ({@link PlayerDataManager},
+ * {@link XPListener}, {@link BossBarManager}), XP through
+ * {@code PlayerExpChangeEvent} and thus {@code handleXpGain}. Ticks are run
+ * back to back rather than every 50 ms, and the tick time is the main-thread
+ * time of firing the tick's events plus running the scheduled sync tasks.
+ * Async tasks (database loads and saves, outbox commits) run on MockBukkit's
+ * async pool concurrently. The numbers include MockBukkit's own overhead and
+ * are meant for comparing runs against each other, not against a real server.
+ * </p>
+ *
+ * <p>
+ * Usage: {@code LoadSimulation [scenario] [report file]}, usually through
+ * {@code gradle simulate -Pscenario=<name>}.
+ * </p>
+ */
+public final class LoadSimulation {
+
+    private static final long TICK_BUDGET_NANOS = 50_000_000L;
+
+    /** XPDatabase operations that write to the database. */
+    private static final Set<String> WRITE_OPERATIONS = Set.of("db_set_player_data", "db_save_players", "db_set_xp",
+            "db_raise_xp", "db_commit_outbox", "db_reset_player");
+
+    private final SimulationScenario scenario;
+    private final SplittableRandom random;
+    private final com.sun.management.ThreadMXBean threads;
+
+    private ServerMock server;
+    private TotalXPRewardsPlugin plugin;
+
+    private final List<PlayerMock> online = new ArrayList<>();
+    private final List<PlayerMock> offline = new ArrayList<>();
+    private double churnCarry;
+
+    // Counted during the measured phase only
+    private boolean measuring;
+    private long xpEvents;
+    private long joins;
+    private long quits;
+
+    private LoadSimulation(SimulationScenario scenario) {
+        this.scenario = scenario;
+        this.random = new SplittableRandom(scenario.seed);
+        this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    }
+
+    public static void main(String[] args) throws IOException {
+        SimulationScenario scenario = SimulationScenario.load(args.length > 0 ? args[0] : "steady");
+        String report = new LoadSimulation(scenario).run();
+        System.out.println(report);
+
+        if (args.length > 1) {
+            File file = new File(args[1]);
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            Files.writeString(file.toPath(), report, StandardCharsets.UTF_8);
+        }
+    }
+
+    private String run() {
+        server = MockBukkit.mock();
+        try {
+            plugin = MockBukkit.load(TotalXPRewardsPlugin.class);
+            // The database is opened by the async startup stage
+            while (!plugin.isReady()) {
+                server.getScheduler().performOneTick();
+            }
+            configure();
+
+            // Join phase
+            int joined = 0;
+            for (int tick = 0; tick < scenario.joinTicks; tick++) {
+                int target = (int) ((long) scenario.players * (tick + 1) / scenario.joinTicks);
+                while (joined < target) {
+                    online.add(server.addPlayer("Sim" + joined));
+                    joined++;
+                }
+                runTick();
+            }
+
+            // Warmup
+            for (int tick = 0; tick < scenario.warmupTicks; tick++) {
+                runTick();
+            }
+            settle();
+
+            // Measured phase
+            plugin.getStats().reset();
+            measuring = true;
+            long[] tickNanos = new long[scenario.ticks];
+            long mainAllocated = 0;
+            long totalAllocatedStart = threads.getTotalThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int tick = 0; tick < scenario.ticks; tick++) {
+                long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+                long tickStart = System.nanoTime();
+                runTick();
+                tickNanos[tick] = System.nanoTime() - tickStart;
+                mainAllocated += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            }
+            long elapsed = System.nanoTime() - start;
+            long totalAllocated = threads.getTotalThreadAllocatedBytes() - totalAllocatedStart;
+            measuring = false;
+
+            // Let pending saves and outbox commits finish so the write counts are complete
+            server.getScheduler().performTicks(20L);
+            settle();
+
+            return report(tickNanos, elapsed, mainAllocated, totalAllocated);
+        } finally {
+            MockBukkit.unmock();
+        }
+    }
+
+    /**
+     * Configures {@code scenario.rewards} evenly spaced rewards and the BossBar
+     * mode.
+     */
+    private void configure() {
+        plugin.getConfig().set("rewards", null);
+        for (int i = 1; i <= scenario.rewards; i++) {
+            String key = "rewards." + (i * scenario.thresholdStep);
+            plugin.getConfig().set(key + ".name", "Rank " + i);
+            plugin.getConfig().set(key + ".commands", Collections.singletonList("say %player% reached %threshold%"));
+            plugin.getConfig().set(key + ".broadcast", "&a%player% reached &e%current_rank%&a!");
+        }
+        plugin.getConfig().set("bossbar.enabled", scenario.bossBar);
+        plugin.getConfig().set("bossbar.dynamic-mode", scenario.bossBarDynamic);
+        plugin.getConfig().set("settings.use-placeholderapi", false);
+        plugin.saveConfig();
+        plugin.reloadSettings();
+    }
+
+    private void runTick() {
+        churn();
+
+        double perTick = scenario.xpEventsPerSecond / 20.0D;
+        int whole = (int) perTick;
+        double fraction = perTick - whole;
+        int span = scenario.xpMax - scenario.xpMin + 1;
+        for (int i = 0, size = online.size(); i < size; i++) {
+            PlayerMock player = online.get(i);
+            int events = whole + (random.nextDouble() < fraction ? 1 : 0);
+            for (int e = 0; e < events; e++) {
+                int amount = scenario.xpMin + random.nextInt(span);
+                server.getPluginManager().callEvent(new PlayerExpChangeEvent(player, amount));
+            }
+            if (measuring) {
+                xpEvents += events;
+            }
+        }
+
+        server.getScheduler().performOneTick();
+    }
+
+    /**
+     * Disconnects random online players and reconnects random offline ones at
+     * {@code churn-per-second}.
+     */
+    private void churn() {
+        churnCarry += scenario.churnPerSecond / 20.0D;
+        while (churnCarry >= 1.0D) {
+            churnCarry -= 1.0D;
+            PlayerMock back = offline.isEmpty() ? null : removeRandom(offline);
+            if (!online.isEmpty()) {
+                PlayerMock leaving = removeRandom(online);
+                leaving.disconnect();
+                offline.add(leaving);
+                if (measuring) {
+                    quits++;
+                }
+            }
+            if (back != null) {
+                back.reconnect();
+                online.add(back);
+                if (measuring) {
+                    joins++;
+                }
+            }
+        }
+    }
+
+    private PlayerMock removeRandom(List<PlayerMock> list) {
+        int index = random.nextInt(list.size());
+        PlayerMock last = list.remove(list.size() - 1);
+        if (index == list.size()) {
+            return last;
+        }
+        return list.set(index, last);
+    }
+
+    private void settle() {
+        server.getScheduler().waitAsyncTasksFinished();
+        server.getScheduler().performOneTick();
+        server.getScheduler().waitAsyncTasksFinished();
+        // Saves and commits run on the plugin's own I/O executor
+        while (plugin.getIoExecutor().getPending() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private String report(long[] tickNanos, long elapsed, long mainAllocated, long totalAllocated) {
+        PluginStats stats = plugin.getStats();
+        double seconds = elapsed / 1e9D;
+        long[] sorted = tickNanos.clone();
+        Arrays.sort(sorted);
+        long overBudget = Arrays.stream(sorted).filter(n -> n > TICK_BUDGET_NANOS).count();
+        long tickSum = Arrays.stream(sorted).sum();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== TotalXPRewards load simulation ===\n");
+        sb.append("Scenario    ").append(scenario).append('\n');
+        sb.append(String.format("Run         %d ticks in %.2f s (%.0f ticks/s), %d online at end%n",
+                sorted.length, seconds, sorted.length / seconds, online.size()));
+
+        sb.append("\n-- Throughput\n");
+        sb.append(String.format("XP events   %d (%.0f/s wall, %.1f/tick)%n", xpEvents, xpEvents / seconds,
+                (double) xpEvents / sorted.length));
+        sb.append(String.format("XP gained   %d%n", stats.xpGained.get()));
+        sb.append(String.format("Rewards     %d executed, outbox backlog %d%n", stats.rewardsExecuted.get(),
+                plugin.getRewardOutbox().getBacklog()));
+        sb.append(String.format("Churn       %d joins, %d quits%n", joins, quits));
+
+        sb.append("\n-- Tick time (main thread)\n");
+        sb.append(String.format("mean %s  p50 %s  p99 %s  p99.9 %s  max %s%n",
+                millis(tickSum / Math.max(1, sorted.length)), millis(percentile(sorted, 0.50D)),
+                millis(percentile(sorted, 0.99D)), millis(percentile(sorted, 0.999D)),
+                millis(sorted.length > 0 ? sorted[sorted.length - 1] : 0L)));
+        sb.append(String.format("over 50 ms  %d ticks%n", overBudget));
+
+        sb.append("\n-- Allocation\n");
+        sb.append(String.format("main thread %.1f KB/tick (%.1f MB/s wall)%n",
+                mainAllocated / 1024.0D / Math.max(1, sorted.length), mainAllocated / 1048576.0D / seconds));
+        sb.append(String.format("all threads %.1f MB/s wall%n", totalAllocated / 1048576.0D / seconds));
+
+        sb.append("\n-- Plugin timers (count, p50 / p99 / max)\n");
+        long writes = 0;
+        for (PluginStats.Timer timer : stats.getTimers()) {
+            if (timer.getCount() == 0) {
+                continue;
+            }
+            if (WRITE_OPERATIONS.contains(timer.getName())) {
+                writes += timer.getCount();
+            }
+            sb.append(String.format("%-28s %8d  %s / %s / %s%n", timer.getName(), timer.getCount(),
+                    micros(timer.getPercentileNanos(0.50D)), micros(timer.getPercentileNanos(0.99D)),
+                    micros(timer.getMaxNanos())));
+        }
+
+        sb.append("\n-- Database\n");
+        sb.append(String.format("writes      %d (%.1f/s wall, %.2f per XP event)%n", writes, writes / seconds,
+                xpEvents > 0 ? (double) writes / xpEvents : 0.0D));
+        sb.append(String.format("skipped     %d unchanged player saves%n", stats.dbWritesSkipped.get()));
+        return sb.toString();
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0L;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f ms", nanos / 1e6D);
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1f µs", nanos / 1e3D);
+    }
+}
@@ -0,0 +1,90 @@
+package de.celduinx.totalxprewards;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * A load-simulation scenario, read from a properties file.
+ *
+ * <p>
+ * {@code name} is either a path to a properties file or the name of a bundled
+ * scenario in {@code scenarios/}. Every key can be overridden with a system
+ * property {@code sim.<key>}, e.g. {@code -Dsim.players=1000}.
+ * </p>
+ */
+final class SimulationScenario {
+
+    final String name;
+    /** Number of distinct players; all of them are online after the join phase. */
+    final int players;
+    /** Ticks over which the initial joins are spread. */
+    final int joinTicks;
+    /** Ticks run before measuring starts (after the join phase). */
+    final int warmupTicks;
+    /** Measured ticks. */
+    final int ticks;
+    /** Average XP events per online player and second. */
+    final double xpEventsPerSecond;
+    final int xpMin;
+    final int xpMax;
+    /** Players quitting (and others rejoining) per second. */
+    final double churnPerSecond;
+    /** Number of reward thresholds. */
+    final int rewards;
+    /** XP between two reward thresholds. */
+    final long thresholdStep;
+    final boolean bossBar;
+    final boolean bossBarDynamic;
+    final long seed;
+
+    private SimulationScenario(String name, Properties props) {
+        this.name = name;
+        this.players = Integer.parseInt(get(props, "players", "100"));
+        this.joinTicks = Math.max(1, Integer.parseInt(get(props, "join-ticks", "100")));
+        this.warmupTicks = Integer.parseInt(get(props, "warmup-ticks", "200"));
+        this.ticks = Integer.parseInt(get(props, "ticks", "2400"));
+        this.xpEventsPerSecond = Double.parseDouble(get(props, "xp-events-per-second", "1"));
+        this.xpMin = Integer.parseInt(get(props, "xp-min", "1"));
+        this.xpMax = Math.max(xpMin, Integer.parseInt(get(props, "xp-max", "10")));
+        this.churnPerSecond = Double.parseDouble(get(props, "churn-per-second", "0"));
+        this.rewards = Integer.parseInt(get(props, "rewards", "20"));
+        this.thresholdStep = Long.parseLong(get(props, "threshold-step", "1000"));
+        this.bossBar = Boolean.parseBoolean(get(props, "bossbar", "true"));
+        this.bossBarDynamic = Boolean.parseBoolean(get(props, "bossbar-dynamic", "true"));
+        this.seed = Long.parseLong(get(props, "seed", "1"));
+    }
+
+    static SimulationScenario load(String name) throws IOException {
+        Properties props = new Properties();
+        File file = new File(name);
+        if (file.isFile()) {
+            try (InputStream in = new FileInputStream(file)) {
+                props.load(in);
+            }
+            name = file.getName().replaceFirst("\\.properties$", "");
+        } else {
+            try (InputStream in = SimulationScenario.class.getResourceAsStream("/scenarios/" + name + ".properties")) {
+                if (in == null) {
+                    throw new IOException("Unknown scenario: " + name);
+                }
+                props.load(in);
+            }
+        }
+        return new SimulationScenario(name, props);
+    }
+
+    private static String get(Properties props, String key, String def) {
+        return System.getProperty("sim." + key, props.getProperty(key, def)).trim();
+    }
+
+    @Override
+    public String toString() {
+        return name + ": players=" + players + ", join-ticks=" + joinTicks + ", warmup-ticks=" + warmupTicks
+                + ", ticks=" + ticks + ", xp-events-per-second=" + xpEventsPerSecond + ", xp=" + xpMin + ".."
+                + xpMax + ", churn-per-second=" + churnPerSecond + ", rewards=" + rewards + "x" + thresholdStep
+                + ", bossbar=" + bossBar + (bossBarDynamic ? " (dynamic)" : "") + ", seed=" + seed;
+    }
+}